@@ -0,0 +1,9 @@
+// len(array)
+public class ArrayLength extends Expression {
+    public final Expression array;
+
+    public ArrayLength(Expression array, int line){
+        super(line);
+        this.array = array;
+    }
+}
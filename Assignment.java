@@ -0,0 +1,11 @@
+public class Assignment extends Statement {
+    public final Identifier name;
+    public final Expression value;
+    public int slot = -1;
+
+    public Assignment(Identifier name, Expression value, int line){
+        super(line);
+        this.name = name;
+        this.value = value;
+    }
+}
@@ -0,0 +1,153 @@
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+// Runs many independent scripts concurrently. Every script is parsed, compiled and executed in
+// its own task with its own Output; only the Engine, which holds no per-run state, is shared.
+// batch.executor picks the executor: "virtual" (a virtual thread per script, where the JDK has
+// them) or "forkjoin" (a ForkJoinPool of batch.parallelism threads, by default one per core).
+public class BatchRunner {
+    private final Engine engine;
+    private final Path outputDirectory;
+
+    // With an output directory each script's output goes to <name>.out there and errors to
+    // <name>.err, where name is the script's path from the directory all the scripts share, so
+    // scripts of the same name in different directories keep their own files. Without one, output
+    // is kept in memory and reported after the batch.
+    public BatchRunner(Engine engine, Path outputDirectory){
+        this.engine = engine;
+        this.outputDirectory = outputDirectory;
+    }
+
+    public static class Result {
+        public final Path script;
+        public final List<String> output;
+        public final String error;
+        public final long nanos;
+
+        Result(Path script, List<String> output, String error, long nanos){
+            this.script = script;
+            this.output = output;
+            this.error = error;
+            this.nanos = nanos;
+        }
+
+        public boolean failed(){
+            return error != null;
+        }
+    }
+
+    // A directory means every .txt file in it; any other file lists one script path per line,
+    // relative to the list's own directory.
+    public static List<Path> scripts(Path batch) throws IOException {
+        List<Path> scripts = new ArrayList<>();
+        if(Files.isDirectory(batch)){
+            try(Stream<Path> files = Files.list(batch)){
+                files.filter(file -> Files.isRegularFile(file) && file.toString().endsWith(".txt"))
+                        .sorted()
+                        .forEach(scripts::add);
+            }
+        }else{
+            Path base = batch.toAbsolutePath().getParent();
+            for(String line : Files.readAllLines(batch)){
+                if(!line.isBlank()){
+                    scripts.add(base.resolve(line.strip()));
+                }
+            }
+        }
+        return scripts;
+    }
+
+    public List<Result> run(List<Path> scripts) throws Exception {
+        if(outputDirectory != null){
+            Files.createDirectories(outputDirectory);
+        }
+        Path base = commonDirectory(scripts);
+        ExecutorService executor = executor();
+        try{
+            List<Future<Result>> futures = new ArrayList<>(scripts.size());
+            for(Path script : scripts){
+                Path absolute = script.toAbsolutePath().normalize();
+                String name = base != null ? base.relativize(absolute).toString() : absolute.subpath(0, absolute.getNameCount()).toString();
+                futures.add(executor.submit(() -> run(script, name)));
+            }
+            List<Result> results = new ArrayList<>(scripts.size());
+            for(Future<Result> future : futures){
+                results.add(future.get());
+            }
+            return results;
+        }finally{
+            executor.shutdown();
+        }
+    }
+
+    // Directory every script is in, directly or further down, or null if they share none.
+    private static Path commonDirectory(List<Path> scripts){
+        Path common = null;
+        for(Path script : scripts){
+            Path directory = script.toAbsolutePath().normalize().getParent();
+            if(common == null){
+                common = directory;
+            }
+            while(common != null && !directory.startsWith(common)){
+                common = common.getParent();
+            }
+            if(common == null){
+                return null;
+            }
+        }
+        return common;
+    }
+
+    // Catches everything a script can throw, Errors too, so one script failing never loses the
+    // results of the others.
+    private Result run(Path script, String name){
+        long start = System.nanoTime();
+        CollectingOutput collected = null;
+        String error = null;
+        try{
+            if(outputDirectory != null){
+                Files.createDirectories(outputDirectory.resolve(name).getParent());
+            }
+            try(Output output = outputDirectory != null ? Output.file(outputDirectory.resolve(name + ".out")) : (collected = new CollectingOutput())){
+                engine.execute(engine.compileFile(script), output);
+            }
+        }catch(Throwable e){
+            error = e.getMessage() != null ? e.getMessage() : e.toString();
+        }
+
+        if(error != null && outputDirectory != null){
+            try{
+                Files.writeString(outputDirectory.resolve(name + ".err"), error + System.lineSeparator());
+            }catch(IOException e){
+                error += " (and could not write " + name + ".err: " + e.getMessage() + ")";
+            }
+        }
+        return new Result(script, collected != null ? collected.lines() : List.of(), error, System.nanoTime() - start);
+    }
+
+    static ExecutorService executor() throws Exception {
+        String kind = System.getProperty("batch.executor", "virtual");
+        if(kind.equals("virtual")){
+            // Looked up reflectively so the interpreter still builds and runs on JDKs without them.
+            try{
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) factory.invoke(null);
+            }catch(NoSuchMethodException e){
+                kind = "forkjoin";
+            }
+        }
+        if(kind.equals("forkjoin")){
+            return new ForkJoinPool(Integer.getInteger("batch.parallelism", Runtime.getRuntime().availableProcessors()));
+        }
+        throw new Exception("Unknown batch.executor " + kind);
+    }
+}
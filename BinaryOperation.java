@@ -0,0 +1,12 @@
+public class BinaryOperation extends Expression {
+    public final Operator operator;
+    public final Expression left;
+    public final Expression right;
+
+    public BinaryOperation(Operator operator, Expression left, Expression right, int line){
+        super(line);
+        this.operator = operator;
+        this.left = left;
+        this.right = right;
+    }
+}
@@ -0,0 +1,10 @@
+import java.util.List;
+
+public class Block extends Statement {
+    public final List<Statement> statements;
+
+    public Block(List<Statement> statements, int line){
+        super(line);
+        this.statements = statements;
+    }
+}
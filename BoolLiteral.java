@@ -0,0 +1,8 @@
+public class BoolLiteral extends Expression {
+    public final boolean value;
+
+    public BoolLiteral(boolean value, int line){
+        super(line);
+        this.value = value;
+    }
+}
@@ -0,0 +1,14 @@
+import java.util.List;
+
+public class Call extends Expression {
+    public final Identifier name;
+    public final List<Expression> arguments;
+    // Set by the Resolver.
+    public FunctionDeclaration function;
+
+    public Call(Identifier name, List<Expression> arguments, int line){
+        super(line);
+        this.name = name;
+        this.arguments = arguments;
+    }
+}
@@ -0,0 +1,9 @@
+// A call whose result is not used.
+public class CallStatement extends Statement {
+    public final Call call;
+
+    public CallStatement(Call call, int line){
+        super(line);
+        this.call = call;
+    }
+}
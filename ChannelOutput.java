@@ -0,0 +1,143 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+// Encodes straight into a byte buffer and writes it to the channel when it fills up, when a line
+// ends more than flushInterval after the last flush, and on flush(). Nothing watches the clock in
+// between, so the last lines before a long stretch without printing wait for the next line or
+// flush(). Text is UTF-8.
+public class ChannelOutput implements Output {
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 100;
+    private static final byte[] lineSeparator = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    private final WritableByteChannel channel;
+    private final boolean closeChannel;
+    private final ByteBuffer buffer;
+    private final byte[] digits;
+    private final long flushIntervalNanos;
+    private long lastFlush;
+
+    public ChannelOutput(WritableByteChannel channel, boolean closeChannel){
+        this(channel, closeChannel, DEFAULT_BUFFER_SIZE, DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+    public ChannelOutput(WritableByteChannel channel, boolean closeChannel, int bufferSize, long flushIntervalMillis){
+        this.channel = channel;
+        this.closeChannel = closeChannel;
+        this.buffer = ByteBuffer.allocate(Math.max(bufferSize, 64));
+        this.digits = new byte[11];
+        this.flushIntervalNanos = flushIntervalMillis * 1_000_000;
+        this.lastFlush = System.nanoTime();
+    }
+
+    @Override
+    public void println(int value) throws IOException {
+        reserve(digits.length + lineSeparator.length);
+        // Digits are produced from the negated value so Integer.MIN_VALUE needs no special case.
+        int negative = value < 0 ? value : -value;
+        int position = digits.length;
+        do{
+            digits[--position] = (byte) ('0' - negative % 10);
+            negative /= 10;
+        }while(negative != 0);
+        if(value < 0){
+            digits[--position] = '-';
+        }
+        buffer.put(digits, position, digits.length - position);
+        endLine();
+    }
+
+    @Override
+    public void println(boolean value) throws IOException {
+        reserve(5 + lineSeparator.length);
+        if(value){
+            buffer.put((byte) 't').put((byte) 'r').put((byte) 'u').put((byte) 'e');
+        }else{
+            buffer.put((byte) 'f').put((byte) 'a').put((byte) 'l').put((byte) 's').put((byte) 'e');
+        }
+        endLine();
+    }
+
+    @Override
+    public void println(String value) throws IOException {
+        int length = value.length();
+        if(length + lineSeparator.length <= buffer.capacity()){
+            reserve(length + lineSeparator.length);
+            int i = 0;
+            while(i < length){
+                char c = value.charAt(i);
+                if(c >= 0x80){
+                    break;
+                }
+                buffer.put((byte) c);
+                i++;
+            }
+            if(i == length){
+                endLine();
+                return;
+            }
+            buffer.position(buffer.position() - i);
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if(bytes.length + lineSeparator.length > buffer.remaining()){
+            drain();
+        }
+        if(bytes.length + lineSeparator.length > buffer.capacity()){
+            write(ByteBuffer.wrap(bytes));
+        }else{
+            buffer.put(bytes);
+        }
+        endLine();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        lastFlush = System.nanoTime();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        if(closeChannel){
+            channel.close();
+        }
+    }
+
+    private void endLine() throws IOException {
+        buffer.put(lineSeparator);
+        if(System.nanoTime() - lastFlush >= flushIntervalNanos){
+            flush();
+        }
+    }
+
+    private void reserve(int bytes) throws IOException {
+        if(buffer.remaining() < bytes){
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        Events.Output event = Events.recording() ? new Events.Output() : null;
+        if(event != null){
+            event.begin();
+        }
+        int bytes = buffer.remaining();
+        write(buffer);
+        buffer.clear();
+        if(event != null && event.shouldCommit()){
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    private void write(ByteBuffer bytes) throws IOException {
+        while(bytes.hasRemaining()){
+            channel.write(bytes);
+        }
+    }
+}
@@ -31,8 +31,35 @@ public enum CharClass {
 
     public static final EnumSet<CharClass> terms = EnumSet.of(DIGIT, DOUBLE_QUOTE, IDENTIFIER);
 
+    private static final CharClass[] asciiFirstCharTypes = new CharClass[128];
+
+    private final boolean[] asciiTypes = new boolean[128];
+
+    static {
+        for(char c = 0; c < 128; c++){
+            asciiFirstCharTypes[c] = firstCharType(c);
+            for(CharClass charClass : values()){
+                charClass.asciiTypes[c] = charClass.isType(c);
+            }
+        }
+    }
+
     abstract public boolean isType(char c);
 
+    public static CharClass classify(int codePoint){
+        if(codePoint < 128){
+            return asciiFirstCharTypes[codePoint];
+        }
+        return codePoint <= Character.MAX_VALUE ? firstCharType((char) codePoint) : UNKNOWN;
+    }
+
+    public boolean contains(int codePoint){
+        if(codePoint < 128){
+            return asciiTypes[codePoint];
+        }
+        return codePoint <= Character.MAX_VALUE && isType((char) codePoint);
+    }
+
     public static CharClass firstCharType(char c){
         if(Character.isLetter(c)){
             return IDENTIFIER;
@@ -0,0 +1,259 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Minimal class file emitter for the loop JIT. Classes are written as version 49 so the JVM
+// uses the type-inferring verifier and no StackMapTable has to be computed.
+public class ClassFileWriter {
+    private static final int VERSION = 49;
+
+    private final ByteArrayOutputStream poolBytes;
+    private final DataOutputStream pool;
+    private final Map<String, Integer> poolIndices;
+    private int poolCount;
+    private final List<byte[]> methods;
+
+    public ClassFileWriter(){
+        this.poolBytes = new ByteArrayOutputStream();
+        this.pool = new DataOutputStream(poolBytes);
+        this.poolIndices = new HashMap<>();
+        this.poolCount = 1;
+        this.methods = new ArrayList<>();
+    }
+
+    public int utf8(String value) throws IOException {
+        Integer index = poolIndices.get("U" + value);
+        if(index != null){
+            return index;
+        }
+        pool.writeByte(1);
+        pool.writeUTF(value);
+        return register("U" + value);
+    }
+
+    public int classRef(String internalName) throws IOException {
+        Integer index = poolIndices.get("C" + internalName);
+        if(index != null){
+            return index;
+        }
+        int name = utf8(internalName);
+        pool.writeByte(7);
+        pool.writeShort(name);
+        return register("C" + internalName);
+    }
+
+    public int string(String value) throws IOException {
+        Integer index = poolIndices.get("S" + value);
+        if(index != null){
+            return index;
+        }
+        int utf8 = utf8(value);
+        pool.writeByte(8);
+        pool.writeShort(utf8);
+        return register("S" + value);
+    }
+
+    public int integer(int value) throws IOException {
+        Integer index = poolIndices.get("I" + value);
+        if(index != null){
+            return index;
+        }
+        pool.writeByte(3);
+        pool.writeInt(value);
+        return register("I" + value);
+    }
+
+    public int fieldRef(String owner, String name, String descriptor) throws IOException {
+        return memberRef(9, owner, name, descriptor);
+    }
+
+    public int methodRef(String owner, String name, String descriptor) throws IOException {
+        return memberRef(10, owner, name, descriptor);
+    }
+
+    public int interfaceMethodRef(String owner, String name, String descriptor) throws IOException {
+        return memberRef(11, owner, name, descriptor);
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) throws IOException {
+        String key = "M" + tag + owner + "." + name + descriptor;
+        Integer index = poolIndices.get(key);
+        if(index != null){
+            return index;
+        }
+        int ownerIndex = classRef(owner);
+        int nameAndType = nameAndType(name, descriptor);
+        pool.writeByte(tag);
+        pool.writeShort(ownerIndex);
+        pool.writeShort(nameAndType);
+        return register(key);
+    }
+
+    private int nameAndType(String name, String descriptor) throws IOException {
+        String key = "N" + name + ":" + descriptor;
+        Integer index = poolIndices.get(key);
+        if(index != null){
+            return index;
+        }
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        pool.writeByte(12);
+        pool.writeShort(nameIndex);
+        pool.writeShort(descriptorIndex);
+        return register(key);
+    }
+
+    private int register(String key){
+        poolIndices.put(key, poolCount);
+        return poolCount++;
+    }
+
+    public void method(int access, String name, String descriptor, Code code, int maxStack, int maxLocals) throws IOException {
+        byte[] bytecode = code.toByteArray();
+        List<int[]> handlers = code.handlers();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeShort(access);
+        out.writeShort(utf8(name));
+        out.writeShort(utf8(descriptor));
+        out.writeShort(1);
+        out.writeShort(utf8("Code"));
+        out.writeInt(12 + bytecode.length + 8 * handlers.size());
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(bytecode.length);
+        out.write(bytecode);
+        out.writeShort(handlers.size());
+        for(int[] handler : handlers){
+            for(int offset : handler){
+                out.writeShort(offset);
+            }
+            out.writeShort(0);
+        }
+        out.writeShort(0);
+        methods.add(bytes.toByteArray());
+    }
+
+    public byte[] toByteArray(String name, String superName, String... interfaces) throws IOException {
+        int thisIndex = classRef(name);
+        int superIndex = classRef(superName);
+        int[] interfaceIndices = new int[interfaces.length];
+        for(int i = 0; i < interfaces.length; i++){
+            interfaceIndices[i] = classRef(interfaces[i]);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(VERSION);
+        out.writeShort(poolCount);
+        out.write(poolBytes.toByteArray());
+        out.writeShort(0x0001 | 0x0010 | 0x0020);
+        out.writeShort(thisIndex);
+        out.writeShort(superIndex);
+        out.writeShort(interfaceIndices.length);
+        for(int interfaceIndex : interfaceIndices){
+            out.writeShort(interfaceIndex);
+        }
+        out.writeShort(0);
+        out.writeShort(methods.size());
+        for(byte[] method : methods){
+            out.write(method);
+        }
+        out.writeShort(0);
+        return bytes.toByteArray();
+    }
+
+    // Bytecode buffer with forward-referencable labels, patched when the method is written.
+    // Only 16-bit branch offsets are supported.
+    public static class Code {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final List<int[]> fixups = new ArrayList<>();
+        private final List<Integer> labels = new ArrayList<>();
+        private final List<int[]> handlers = new ArrayList<>();
+
+        public int size(){
+            return bytes.size();
+        }
+
+        public Code op(int opcode){
+            bytes.write(opcode);
+            return this;
+        }
+
+        public Code u1(int value){
+            bytes.write(value);
+            return this;
+        }
+
+        public Code u2(int value){
+            bytes.write(value >>> 8);
+            bytes.write(value);
+            return this;
+        }
+
+        public Code pushInt(int value, ClassFileWriter classFile) throws IOException {
+            if(value >= -1 && value <= 5){
+                return op(0x03 + value);
+            }
+            if(value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE){
+                return op(0x10).u1(value);
+            }
+            if(value >= Short.MIN_VALUE && value <= Short.MAX_VALUE){
+                return op(0x11).u2(value);
+            }
+            return ldc(classFile.integer(value));
+        }
+
+        public Code ldc(int index){
+            if(index < 256){
+                return op(0x12).u1(index);
+            }
+            return op(0x13).u2(index);
+        }
+
+        public int newLabel(){
+            labels.add(-1);
+            return labels.size() - 1;
+        }
+
+        public void bind(int label){
+            labels.set(label, bytes.size());
+        }
+
+        public Code jump(int opcode, int label){
+            fixups.add(new int[]{bytes.size(), label});
+            op(opcode);
+            return u2(0);
+        }
+
+        // Sends anything thrown between the start and end labels to the handler label, with the
+        // exception as the only thing on the stack.
+        public void catchAll(int start, int end, int handler){
+            handlers.add(new int[]{start, end, handler});
+        }
+
+        private List<int[]> handlers(){
+            List<int[]> offsets = new ArrayList<>();
+            for(int[] handler : handlers){
+                offsets.add(new int[]{labels.get(handler[0]), labels.get(handler[1]), labels.get(handler[2])});
+            }
+            return offsets;
+        }
+
+        public byte[] toByteArray(){
+            byte[] code = bytes.toByteArray();
+            for(int[] fixup : fixups){
+                int offset = labels.get(fixup[1]) - fixup[0];
+                code[fixup[0] + 1] = (byte) (offset >>> 8);
+                code[fixup[0] + 2] = (byte) offset;
+            }
+            return code;
+        }
+    }
+}
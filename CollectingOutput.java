@@ -0,0 +1,42 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Keeps everything printed in memory, one entry per line.
+public class CollectingOutput implements Output {
+    private final List<String> lines;
+
+    public CollectingOutput(){
+        this.lines = new ArrayList<>();
+    }
+
+    @Override
+    public void println(int value){
+        lines.add(Integer.toString(value));
+    }
+
+    @Override
+    public void println(boolean value){
+        lines.add(value ? "true" : "false");
+    }
+
+    @Override
+    public void println(String value){
+        lines.add(value);
+    }
+
+    @Override
+    public void flush(){
+    }
+
+    public List<String> lines(){
+        return lines;
+    }
+
+    public String text(){
+        StringBuilder text = new StringBuilder();
+        for(String line : lines){
+            text.append(line).append('\n');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,8 @@
+public interface CompiledLoop {
+    int DEOPTIMIZE = -1;
+
+    // Runs the loop from its header, with the running frame starting at frame in the arrays, and
+    // returns the pc the interpreter resumes at, or DEOPTIMIZE if a type guard failed before any
+    // side effect.
+    int run(int[] localValues, Object[] localRefs, int frame, Output output) throws Exception;
+}
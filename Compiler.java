@@ -0,0 +1,498 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class Compiler {
+    private int[] code;
+    private int[] lines;
+    private int size;
+    private final List<Object> constants;
+    private final Map<String, Integer> literalIndices;
+    private final Resolver resolver;
+    private final boolean session;
+    private final boolean optimize;
+    private final int instrumentation;
+    private final List<int[]> regions;
+    private int stackDepth;
+    private int maxStack;
+    // Types of the variables at the point being compiled.
+    private TypeChecker types;
+    // Every function called so far, in the order they are compiled, with the pcs of the calls to
+    // it; the calls are pointed at the function once it is compiled.
+    private final Map<FunctionDeclaration, List<Integer>> callSites;
+
+    public Compiler(){
+        this(Boolean.parseBoolean(System.getProperty("optimize", "true")), Instrumentation.fromProperties());
+    }
+
+    // Instrumentation is a set of Instrumentation bits.
+    public Compiler(boolean optimize, int instrumentation){
+        this(optimize, instrumentation, new Resolver(), false);
+    }
+
+    // With session on, the program is one step of a longer session sharing the resolver: its
+    // top-level variables outlive it, so none of their stores count as dead.
+    Compiler(boolean optimize, int instrumentation, Resolver resolver, boolean session){
+        this.optimize = optimize;
+        this.instrumentation = instrumentation;
+        this.regions = new ArrayList<>();
+        this.code = new int[256];
+        this.lines = new int[256];
+        this.size = 0;
+        this.constants = new ArrayList<>();
+        this.literalIndices = new HashMap<>();
+        this.resolver = resolver;
+        this.session = session;
+        this.callSites = new LinkedHashMap<>();
+    }
+
+    public Program compile(Block program, String... globals) throws Exception {
+        int frameSize = resolver.resolve(program, globals);
+        new TypeChecker(frameSize).check(program);
+        if(optimize){
+            Optimizer optimizer = new Optimizer(frameSize, session);
+            program = optimizer.optimize(program);
+            frameSize = optimizer.frameSize();
+        }
+        types = new TypeChecker(frameSize);
+        for(Statement statement : program.statements){
+            statement(statement);
+        }
+        int programStack = maxStack;
+        functions(program.line);
+        return new Program(Arrays.copyOf(code, size), Arrays.copyOf(lines, size), constants.toArray(), programStack, frameSize, instrumentation, regions());
+    }
+
+    // Functions go after the program, which jumps over them to the end. Only functions something
+    // still calls are compiled; compiling one can add more.
+    private void functions(int line) throws Exception {
+        if(callSites.isEmpty()){
+            return;
+        }
+        int end = emitJump(Opcode.JUMP, line);
+        Map<FunctionDeclaration, int[]> layouts = new HashMap<>();
+        while(layouts.size() < callSites.size()){
+            for(FunctionDeclaration function : new ArrayList<>(callSites.keySet())){
+                if(!layouts.containsKey(function)){
+                    layouts.put(function, function(function));
+                }
+            }
+        }
+        patch(end);
+        for(Map.Entry<FunctionDeclaration, List<Integer>> calls : callSites.entrySet()){
+            int[] layout = layouts.get(calls.getKey());
+            for(int site : calls.getValue()){
+                code[site] = layout[0];
+                code[site + 2] = layout[1];
+                code[site + 3] = layout[2];
+            }
+        }
+    }
+
+    // Compiles the function here, in a frame and stack of its own; returns its entry pc, frame
+    // size and stack size.
+    private int[] function(FunctionDeclaration function) throws Exception {
+        int entry = size;
+        Block body = function.body;
+        int frameSize = function.frameSize;
+        if(optimize){
+            Optimizer optimizer = new Optimizer(frameSize);
+            for(int i = 0; i < function.parameters.size(); i++){
+                optimizer.declare(function.parameters.get(i).slot, function.parameterTypes[i]);
+            }
+            body = optimizer.optimize(body);
+            frameSize = optimizer.frameSize();
+        }
+        types = new TypeChecker(frameSize);
+        for(int i = 0; i < function.parameters.size(); i++){
+            types.declare(function.parameters.get(i).slot, function.parameterTypes[i]);
+        }
+        stackDepth = 0;
+        maxStack = 0;
+        int[] region = beginRegion(Opcode.CONSTRUCT_FUNCTION, literal(function.name.identifier));
+        scope(body);
+        endRegion(region);
+        return new int[]{entry, frameSize, maxStack};
+    }
+
+    private void statement(Statement statement) throws Exception {
+        if(!(statement instanceof Block) && !(statement instanceof FunctionDeclaration)){
+            profileLine(statement.line);
+        }
+        if(statement instanceof Declaration declaration){
+            int type = type(declaration.type);
+            expression(declaration.value);
+            emit(known(declaration.value) ? Opcode.UNCHECKED_DECLARE : Opcode.DECLARE, declaration.line, declaration.slot, type);
+            pop(1);
+            types.declare(declaration.slot, type);
+        }else if(statement instanceof Assignment assignment && increment(assignment) != null){
+            emit(Opcode.INCREMENT, assignment.line, assignment.slot, increment(assignment));
+        }else if(statement instanceof Assignment assignment){
+            expression(assignment.value);
+            boolean checked = !known(assignment.value) || types.slotType(assignment.slot) == TypeChecker.UNKNOWN;
+            emit(checked ? Opcode.STORE : Opcode.UNCHECKED_STORE, assignment.line, assignment.slot);
+            pop(1);
+        }else if(statement instanceof ElementAssignment elementAssignment){
+            ElementAccess target = elementAssignment.target;
+            expression(target.array);
+            expression(target.index);
+            expression(elementAssignment.value);
+            if(known(target.array) && known(target.index) && known(elementAssignment.value)){
+                emit(Opcode.UNCHECKED_STORE_ELEMENT, elementAssignment.line, elementType(target), target.inBounds ? 0 : 1);
+            }else{
+                emit(Opcode.STORE_ELEMENT, elementAssignment.line);
+            }
+            pop(3);
+        }else if(statement instanceof MethodCall methodCall){
+            expression(methodCall.argument);
+            emit(Opcode.PRINT, methodCall.line);
+            pop(1);
+        }else if(statement instanceof CallStatement callStatement){
+            call(callStatement.call, Opcode.CALL);
+            emit(Opcode.POP, callStatement.line);
+            pop(1);
+        }else if(statement instanceof Return returnStatement && returnStatement.value instanceof Call call){
+            call(call, Opcode.TAIL_CALL);
+        }else if(statement instanceof Return returnStatement){
+            expression(returnStatement.value);
+            emit(Opcode.RETURN, returnStatement.line);
+            pop(1);
+        }else if(statement instanceof FunctionDeclaration){
+            // Compiled after the program, if anything calls it.
+        }else if(statement instanceof Block block){
+            scope(block);
+        }else if(statement instanceof IfStatement ifStatement){
+            ifStatement(ifStatement);
+        }else if(statement instanceof WhileLoop whileLoop){
+            whileLoop(whileLoop);
+        }else if(statement instanceof ForLoop forLoop){
+            forLoop(forLoop);
+        }else{
+            throw new Exception("Unknown statement on line " + statement.line);
+        }
+    }
+
+    private void expression(Expression expression) throws Exception {
+        if(expression instanceof IntLiteral intLiteral){
+            emit(Opcode.INT_CONST, intLiteral.line, intLiteral.value);
+            push();
+        }else if(expression instanceof StringLiteral stringLiteral){
+            emit(Opcode.STRING_CONST, stringLiteral.line, literal(stringLiteral.value));
+            push();
+        }else if(expression instanceof BoolLiteral boolLiteral){
+            emit(Opcode.BOOL_CONST, boolLiteral.line, boolLiteral.value ? 1 : 0);
+            push();
+        }else if(expression instanceof Variable variable){
+            emit(Opcode.LOAD, variable.line, variable.slot);
+            push();
+        }else if(expression instanceof BinaryOperation binaryOperation && isShortCircuit(binaryOperation.operator)){
+            shortCircuit(binaryOperation);
+        }else if(expression instanceof BinaryOperation binaryOperation){
+            expression(binaryOperation.left);
+            expression(binaryOperation.right);
+            emit(operatorOpcode(binaryOperation.left, binaryOperation.right), binaryOperation.line, binaryOperation.operator.ordinal());
+            pop(1);
+        }else if(expression instanceof UnaryOperation unaryOperation){
+            expression(unaryOperation.operand);
+            emit(operatorOpcode(unaryOperation.operand), unaryOperation.line, unaryOperation.operator.ordinal());
+        }else if(expression instanceof NewArray newArray){
+            expression(newArray.length);
+            emit(Opcode.NEW_ARRAY, newArray.line, newArray.elementType);
+        }else if(expression instanceof ArrayLength arrayLength){
+            expression(arrayLength.array);
+            emit(Opcode.ARRAY_LENGTH, arrayLength.line);
+        }else if(expression instanceof ElementAccess elementAccess){
+            expression(elementAccess.array);
+            expression(elementAccess.index);
+            if(known(elementAccess.array) && known(elementAccess.index)){
+                emit(Opcode.UNCHECKED_LOAD_ELEMENT, elementAccess.line, elementType(elementAccess), elementAccess.inBounds ? 0 : 1);
+            }else{
+                emit(Opcode.LOAD_ELEMENT, elementAccess.line);
+            }
+            pop(1);
+        }else if(expression instanceof Call call){
+            call(call, Opcode.CALL);
+        }else{
+            throw new Exception("Attempted to compile unimplemented expression on line " + expression.line);
+        }
+    }
+
+    // CALL leaves the result on the stack; after TAIL_CALL nothing here runs again.
+    private void call(Call call, int opcode) throws Exception {
+        for(int i = 0; i < call.arguments.size(); i++){
+            Expression argument = call.arguments.get(i);
+            expression(argument);
+            if(!known(argument)){
+                emit(Opcode.CHECK_TYPE, call.line, call.function.parameterTypes[i]);
+            }
+        }
+        int site = emitJump(opcode, call.line, call.arguments.size(), -1, -1);
+        callSites.computeIfAbsent(call.function, function -> new ArrayList<>()).add(site);
+        pop(call.arguments.size());
+        if(opcode == Opcode.CALL){
+            push();
+        }
+    }
+
+    private void scope(Block block) throws Exception {
+        for(Statement statement : block.statements){
+            statement(statement);
+        }
+    }
+
+    // The right operand only runs when the left one does not decide the result; either way the
+    // result left on the stack is a bool. Only SHORT_CIRCUIT counts itself in the profile.
+    private void shortCircuit(BinaryOperation operation) throws Exception {
+        int ordinal = operation.operator.ordinal();
+        expression(operation.left);
+        boolean unchecked = known(operation.left) && !instrumented(Instrumentation.PROFILE);
+        int skip = emitJump(unchecked ? Opcode.UNCHECKED_SHORT_CIRCUIT : Opcode.SHORT_CIRCUIT, operation.line, ordinal);
+        pop(1);
+        expression(operation.right);
+        if(!known(operation.right)){
+            emit(Opcode.CHECK_BOOL, operation.line, ordinal);
+        }
+        patch(skip);
+    }
+
+    // Evaluates the condition and jumps past what follows when it is false; returns the jump to
+    // patch.
+    private int condition(Expression condition, int construct) throws Exception {
+        if(!instrumented(Instrumentation.PROFILE) && condition instanceof BinaryOperation comparison
+                && isComparison(comparison.operator) && isInt(comparison.left)){
+            int slot = ((Variable) comparison.left).slot;
+            int ordinal = comparison.operator.ordinal();
+            if(comparison.right instanceof IntLiteral literal){
+                return emitJump(Opcode.BRANCH_SLOT_CONST, condition.line, slot, ordinal, literal.value);
+            }else if(isInt(comparison.right)){
+                return emitJump(Opcode.BRANCH_SLOT_SLOT, condition.line, slot, ordinal, ((Variable) comparison.right).slot);
+            }
+        }
+        expression(condition);
+        int jump = known(condition) ? emitJump(Opcode.UNCHECKED_JUMP_IF_FALSE, condition.line) : emitJump(Opcode.JUMP_IF_FALSE, condition.line, construct);
+        pop(1);
+        return jump;
+    }
+
+    // Whether the expression's type is known statically, and so, since the program type checked,
+    // right wherever it is used.
+    private boolean known(Expression expression){
+        return types.type(expression) != TypeChecker.UNKNOWN;
+    }
+
+    private int elementType(ElementAccess elementAccess){
+        return Opcode.elementType(types.type(elementAccess.array));
+    }
+
+    // The amount x = x + c or x = x - c adds to an int variable x, or null for any other assignment.
+    private Integer increment(Assignment assignment){
+        if(instrumented(Instrumentation.PROFILE) || !(assignment.value instanceof BinaryOperation operation)
+                || (operation.operator != Operator.ADD && operation.operator != Operator.SUBTRACT)
+                || !isInt(operation.left) || ((Variable) operation.left).slot != assignment.slot
+                || !(operation.right instanceof IntLiteral literal)){
+            return null;
+        }
+        return operation.operator == Operator.ADD ? literal.value : -literal.value;
+    }
+
+    // A variable known to hold an int.
+    private boolean isInt(Expression expression){
+        return expression instanceof Variable variable && types.slotType(variable.slot) == Opcode.TYPE_INT;
+    }
+
+    private static boolean isComparison(Operator operator){
+        return switch(operator){
+            case EQUAL, NOT_EQUAL, LESS, LESS_OR_EQUAL, GREATER, GREATER_OR_EQUAL -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean isShortCircuit(Operator operator){
+        return operator == Operator.AND || operator == Operator.OR;
+    }
+
+    private void ifStatement(IfStatement ifStatement) throws Exception {
+        int[] region = beginRegion(Opcode.CONSTRUCT_IF, ifStatement.line);
+        List<Integer> exitJumps = new ArrayList<>();
+        for(int i = 0; i < ifStatement.conditions.size(); i++){
+            Expression condition = ifStatement.conditions.get(i);
+            int skip = condition(condition, Opcode.CONSTRUCT_IF);
+            scope(ifStatement.branches.get(i));
+            // The last branch falls through to the end unless an else follows it.
+            if(i < ifStatement.conditions.size() - 1 || ifStatement.elseBranch != null){
+                exitJumps.add(emitJump(Opcode.JUMP, ifStatement.line));
+            }
+            patch(skip);
+        }
+        if(ifStatement.elseBranch != null){
+            scope(ifStatement.elseBranch);
+        }
+        for(int exitJump : exitJumps){
+            patch(exitJump);
+        }
+        endRegion(region);
+    }
+
+    private void whileLoop(WhileLoop whileLoop) throws Exception {
+        int[] region = beginRegion(Opcode.CONSTRUCT_WHILE, whileLoop.line);
+        loopEvent(Opcode.LOOP_ENTER, whileLoop.line, Opcode.CONSTRUCT_WHILE);
+        int start = size;
+        profileLine(whileLoop.condition.line);
+        int exit = condition(whileLoop.condition, Opcode.CONSTRUCT_WHILE);
+        profileLoop(whileLoop.line, Opcode.CONSTRUCT_WHILE);
+        loopEvent(Opcode.LOOP_ITERATION, whileLoop.line);
+        scope(whileLoop.body);
+        emit(Opcode.JUMP, whileLoop.line, start);
+        patch(exit);
+        loopEvent(Opcode.LOOP_EXIT, whileLoop.line);
+        endRegion(region);
+    }
+
+    private void forLoop(ForLoop forLoop) throws Exception {
+        int[] region = beginRegion(Opcode.CONSTRUCT_FOR, forLoop.line);
+        statement(forLoop.initializer);
+        loopEvent(Opcode.LOOP_ENTER, forLoop.line, Opcode.CONSTRUCT_FOR);
+        int start = size;
+        profileLine(forLoop.condition.line);
+        int exit = condition(forLoop.condition, Opcode.CONSTRUCT_FOR);
+        profileLoop(forLoop.line, Opcode.CONSTRUCT_FOR);
+        loopEvent(Opcode.LOOP_ITERATION, forLoop.line);
+        scope(forLoop.body);
+        statement(forLoop.adjustment);
+        emit(Opcode.JUMP, forLoop.line, start);
+        patch(exit);
+        loopEvent(Opcode.LOOP_EXIT, forLoop.line);
+        endRegion(region);
+    }
+
+    // Profiled operators are timed, and always checked.
+    private int operatorOpcode(Expression... operands){
+        if(instrumented(Instrumentation.PROFILE)){
+            return Opcode.PROFILE_OPERATOR;
+        }
+        for(Expression operand : operands){
+            if(!known(operand)){
+                return Opcode.OPERATOR;
+            }
+        }
+        return Opcode.UNCHECKED_OPERATOR;
+    }
+
+    // Marks the start of a statement or loop condition for the profiler and the sampler.
+    private void profileLine(int line){
+        if(instrumented(Instrumentation.PROFILE)){
+            emit(Opcode.PROFILE_LINE, line, line);
+        }
+        if(instrumented(Instrumentation.SAMPLING)){
+            emit(Opcode.POSITION, line);
+        }
+    }
+
+    private void profileLoop(int line, int construct){
+        if(instrumented(Instrumentation.PROFILE)){
+            emit(Opcode.PROFILE_LOOP, line, construct);
+        }
+    }
+
+    private void loopEvent(int opcode, int line, int... operands){
+        if(instrumented(Instrumentation.LOOP_EVENTS)){
+            emit(opcode, line, operands);
+        }
+    }
+
+    // Opens a sampling region for a construct starting here, labelled by its line or, for a
+    // function, by the constant holding its name; endRegion closes it.
+    private int[] beginRegion(int construct, int label){
+        if(!instrumented(Instrumentation.SAMPLING)){
+            return null;
+        }
+        int[] region = {size, -1, construct, label};
+        regions.add(region);
+        return region;
+    }
+
+    private void endRegion(int[] region){
+        if(region != null){
+            region[1] = size;
+        }
+    }
+
+    private int[] regions(){
+        int[] flattened = new int[regions.size() * 4];
+        for(int i = 0; i < regions.size(); i++){
+            System.arraycopy(regions.get(i), 0, flattened, i * 4, 4);
+        }
+        return flattened;
+    }
+
+    private boolean instrumented(int instrumentation){
+        return (this.instrumentation & instrumentation) != 0;
+    }
+
+    private int literal(String value){
+        return literalIndices.computeIfAbsent(value, v -> {
+            constants.add(v);
+            return constants.size() - 1;
+        });
+    }
+
+    static int type(Identifier type) throws Exception {
+        if(type.keyword == Keyword.INT){
+            return Opcode.TYPE_INT;
+        }else if(type.keyword == Keyword.STRING){
+            return Opcode.TYPE_STRING;
+        }else if(type.keyword == Keyword.BOOL){
+            return Opcode.TYPE_BOOL;
+        }else if(type.keyword == Keyword.INT_ARRAY){
+            return Opcode.TYPE_INT_ARRAY;
+        }else if(type.keyword == Keyword.STRING_ARRAY){
+            return Opcode.TYPE_STRING_ARRAY;
+        }else if(type.keyword == Keyword.BOOL_ARRAY){
+            return Opcode.TYPE_BOOL_ARRAY;
+        }
+        throw new Exception("Unknown type " + type);
+    }
+
+    private void push(){
+        stackDepth++;
+        maxStack = Math.max(maxStack, stackDepth);
+    }
+
+    private void pop(int count){
+        stackDepth -= count;
+    }
+
+    private int emitJump(int opcode, int line, int... operands){
+        emit(opcode, line);
+        int target = size;
+        append(-1, line);
+        for(int operand : operands){
+            append(operand, line);
+        }
+        return target;
+    }
+
+    private void patch(int jumpOperand){
+        code[jumpOperand] = size;
+    }
+
+    private void emit(int opcode, int line, int... operands){
+        append(opcode, line);
+        for(int operand : operands){
+            append(operand, line);
+        }
+    }
+
+    private void append(int word, int line){
+        if(size == code.length){
+            code = Arrays.copyOf(code, size * 2);
+            lines = Arrays.copyOf(lines, size * 2);
+        }
+        code[size] = word;
+        lines[size] = line;
+        size++;
+    }
+}
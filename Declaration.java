@@ -0,0 +1,13 @@
+public class Declaration extends Statement {
+    public final Identifier type;
+    public final Identifier name;
+    public final Expression value;
+    public int slot = -1;
+
+    public Declaration(Identifier type, Identifier name, Expression value, int line){
+        super(line);
+        this.type = type;
+        this.name = name;
+        this.value = value;
+    }
+}
@@ -0,0 +1,13 @@
+// array[index]; also the target of an ElementAssignment.
+public class ElementAccess extends Expression {
+    public final Expression array;
+    public final Expression index;
+    // Set by the Optimizer when the index is proven to be in range, so nothing checks it.
+    public boolean inBounds;
+
+    public ElementAccess(Expression array, Expression index, int line){
+        super(line);
+        this.array = array;
+        this.index = index;
+    }
+}
@@ -0,0 +1,11 @@
+// array[index] = value. The array is always a variable.
+public class ElementAssignment extends Statement {
+    public final ElementAccess target;
+    public final Expression value;
+
+    public ElementAssignment(ElementAccess target, Expression value, int line){
+        super(line);
+        this.target = target;
+        this.value = value;
+    }
+}
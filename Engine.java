@@ -0,0 +1,146 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+// Entry point for running scripts from Java. compile() does all the parsing and code generation
+// once; execute() runs the result with a fresh frame every time, so one PreparedScript can be
+// executed any number of times, from any number of threads.
+public class Engine {
+    private final boolean optimize;
+    private final int instrumentation;
+    private final int jitThreshold;
+    private final ProgramCache cache;
+    private final SamplingProfiler sampler;
+
+    // -Dcache.dir turns on the compiled program cache for files, -Dprofile=true profiling and
+    // -Devents.loops=true JFR loop events.
+    public Engine(){
+        this(null);
+    }
+
+    // Same settings as Engine(), with every execution sampled by sampler unless it is null.
+    public Engine(SamplingProfiler sampler){
+        this(Boolean.parseBoolean(System.getProperty("optimize", "true")), Instrumentation.fromProperties(), Integer.getInteger("jit.threshold", 1000),
+                System.getProperty("cache.dir") != null ? Path.of(System.getProperty("cache.dir")) : null, sampler);
+    }
+
+    public Engine(boolean optimize, int jitThreshold){
+        this(optimize, Instrumentation.NONE, jitThreshold, null, null);
+    }
+
+    // Instrumentation is a set of Instrumentation bits; a sampler adds SAMPLING. A negative
+    // jitThreshold keeps every loop in the interpreter. Scripts compiled from files are cached in
+    // cacheDirectory unless it is null. Instrumented scripts run in the interpreter only.
+    public Engine(boolean optimize, int instrumentation, int jitThreshold, Path cacheDirectory, SamplingProfiler sampler){
+        this.optimize = optimize;
+        this.instrumentation = sampler != null ? instrumentation | Instrumentation.SAMPLING : instrumentation;
+        this.jitThreshold = jitThreshold;
+        this.cache = cacheDirectory != null ? new ProgramCache(cacheDirectory) : null;
+        this.sampler = sampler;
+    }
+
+    // Bindings name the variables the host provides to every execution; the script uses them
+    // like variables it declared at the top.
+    public PreparedScript compile(String code, String... bindings) throws Exception {
+        return compile(Source.of(code), "<script>", bindings);
+    }
+
+    public PreparedScript compileFile(Path path, String... bindings) throws Exception {
+        String name = path.toString();
+        Source source = Source.map(name);
+        if(cache == null){
+            return compile(source, name, bindings);
+        }
+
+        String key = cache.key(source, optimize, instrumentation, bindings);
+        Program program = cache.load(key);
+        if(program == null){
+            program = compileProgram(source, name, bindings);
+            // The cache only saves compiling next time; a directory that cannot be written to
+            // should not stop this run.
+            try{
+                cache.store(key, program);
+            }catch(IOException e){
+                System.err.println("Could not cache " + name + ": " + e);
+            }
+        }
+        return new PreparedScript(program, name, bindings.clone());
+    }
+
+    // The name identifies the script in JFR events.
+    public PreparedScript compile(Source source, String name, String... bindings) throws Exception {
+        return new PreparedScript(compileProgram(source, name, bindings), name, bindings.clone());
+    }
+
+    private Program compileProgram(Source source, String name, String... bindings) throws Exception {
+        if(!Events.recording()){
+            return new Compiler(optimize, instrumentation).compile(new Parser(source).parse(), bindings);
+        }
+
+        Events.Phase lex = phase(name, "lex");
+        Parser parser = new Parser(source);
+        lex.commit();
+
+        Events.Phase parse = phase(name, "parse");
+        Block ast = parser.parse();
+        parse.commit();
+
+        Events.Phase compile = phase(name, "compile");
+        Program program = new Compiler(optimize, instrumentation).compile(ast, bindings);
+        compile.commit();
+        return program;
+    }
+
+    private static Events.Phase phase(String script, String phase){
+        Events.Phase event = new Events.Phase();
+        event.script = script;
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+
+    public Profile execute(PreparedScript script, Output output) throws Exception {
+        return execute(script, Map.of(), output);
+    }
+
+    // Every binding the script was compiled with needs an Integer, Boolean or String value, or an
+    // int[], boolean[] or String[] the script shares.
+    // Returns the run's profile when the engine profiles, otherwise null.
+    public Profile execute(PreparedScript script, Map<String, ?> bindings, Output output) throws Exception {
+        Object[] globals = new Object[script.bindings.length];
+        for(int i = 0; i < globals.length; i++){
+            String name = script.bindings[i];
+            globals[i] = bindings.get(name);
+            if(globals[i] == null){
+                throw new Exception("Missing binding " + name);
+            }
+        }
+        VirtualMachine virtualMachine = new VirtualMachine(jitThreshold, output);
+        if(sampler == null){
+            return run(virtualMachine, script, globals);
+        }
+        sampler.attach(virtualMachine, script.program, script.name);
+        try{
+            return run(virtualMachine, script, globals);
+        }finally{
+            sampler.detach(virtualMachine);
+        }
+    }
+
+    private static Profile run(VirtualMachine virtualMachine, PreparedScript script, Object[] globals) throws Exception {
+        if(!Events.recording()){
+            return virtualMachine.run(script.program, globals);
+        }
+
+        Events.Execution event = new Events.Execution();
+        event.script = script.name;
+        event.begin();
+        try{
+            Profile profile = virtualMachine.run(script.program, globals);
+            event.succeeded = true;
+            return profile;
+        }finally{
+            event.commit();
+        }
+    }
+}
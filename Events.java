@@ -0,0 +1,91 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JDK Flight Recorder events for the interpreter. They show up under "Interpreter" next to the
+// JVM's own events in any recording. Loop events need the program to be compiled with loop
+// events on.
+//
+// Loading the first event class starts up JFR's machinery, which costs more than running most
+// scripts, so nothing touches an event class unless recording() says JFR is already running.
+public final class Events {
+    private Events(){}
+
+    static boolean recording(){
+        return FlightRecorder.isInitialized();
+    }
+
+    @Name("interpreter.Phase")
+    @Label("Compile Phase")
+    @Description("Lexing, parsing or code generation of one script")
+    @Category("Interpreter")
+    @StackTrace(false)
+    static class Phase extends Event {
+        @Label("Script")
+        String script;
+
+        @Label("Phase")
+        String phase;
+    }
+
+    @Name("interpreter.Execution")
+    @Label("Script Execution")
+    @Category("Interpreter")
+    @StackTrace(false)
+    static class Execution extends Event {
+        @Label("Script")
+        String script;
+
+        @Label("Succeeded")
+        boolean succeeded;
+    }
+
+    // Blocks are timed while they are parsed, not while they run; the Loop event covers run time.
+    @Name("interpreter.ScopeParsed")
+    @Label("Scope Parsed")
+    @Description("Parsing of one { } block, from its { to its }")
+    @Category("Interpreter")
+    @StackTrace(false)
+    static class ScopeParsed extends Event {
+        @Label("Start Line")
+        int startLine;
+
+        @Label("End Line")
+        int endLine;
+
+        @Label("Statements")
+        int statements;
+    }
+
+    @Name("interpreter.Loop")
+    @Label("Loop")
+    @Description("One execution of a for or while loop, from entry to exit")
+    @Category("Interpreter")
+    @StackTrace(false)
+    static class Loop extends Event {
+        @Label("Line")
+        int line;
+
+        @Label("Kind")
+        String kind;
+
+        @Label("Iterations")
+        long iterations;
+    }
+
+    @Name("interpreter.Output")
+    @Label("Print Output")
+    @Description("Writing buffered print output")
+    @Category("Interpreter")
+    @StackTrace(false)
+    static class Output extends Event {
+        @Label("Bytes")
+        @DataAmount
+        int bytes;
+    }
+}
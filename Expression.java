@@ -0,0 +1,7 @@
+public abstract class Expression {
+    public final int line;
+
+    protected Expression(int line){
+        this.line = line;
+    }
+}
@@ -0,0 +1,14 @@
+public class ForLoop extends Statement {
+    public final Statement initializer;
+    public final Expression condition;
+    public final Statement adjustment;
+    public final Block body;
+
+    public ForLoop(Statement initializer, Expression condition, Statement adjustment, Block body, int line){
+        super(line);
+        this.initializer = initializer;
+        this.condition = condition;
+        this.adjustment = adjustment;
+        this.body = body;
+    }
+}
@@ -0,0 +1,22 @@
+import java.util.List;
+
+// Only allowed at the top level. Parameters are declarations without a value; they take the first
+// slots of the function's own frame.
+public class FunctionDeclaration extends Statement {
+    public final Identifier returnType;
+    public final Identifier name;
+    public final List<Declaration> parameters;
+    public final Block body;
+    // Set by the Resolver: the types of the result and of each parameter, and the frame size.
+    public int resultType = -1;
+    public int[] parameterTypes;
+    public int frameSize = -1;
+
+    public FunctionDeclaration(Identifier returnType, Identifier name, List<Declaration> parameters, Block body, int line){
+        super(line);
+        this.returnType = returnType;
+        this.name = name;
+        this.parameters = parameters;
+        this.body = body;
+    }
+}
@@ -1,8 +1,19 @@
+// A name, interned: there is exactly one Identifier per distinct name (see Symbols), so identity
+// is equality and the symbol number is the hash.
 public class Identifier{
-    public String identifier;
+    public final String identifier;
+    public final int symbol;
+    // The keyword this name is, or null for an ordinary name.
+    public final Keyword keyword;
 
-    public Identifier(String identifier){
+    Identifier(String identifier, int symbol, Keyword keyword){
         this.identifier = identifier;
+        this.symbol = symbol;
+        this.keyword = keyword;
+    }
+
+    public static Identifier of(String identifier){
+        return Symbols.intern(identifier);
     }
 
     public String getIdentifier(){ return this.identifier; }
@@ -14,11 +25,11 @@ public class Identifier{
 
     @Override
     public boolean equals(Object s){
-        return this.identifier.equals(s.toString());
+        return this == s;
     }
 
     @Override
     public int hashCode(){
-        return identifier.hashCode();
+        return symbol;
     }
 }
@@ -9,9 +9,12 @@ public enum IdentifierType {
     ELSE,
     FOR,
     WHILE,
+    RETURN,
+    NEW,
+    LENGTH,
     BOOLEAN;
 
-    public static final EnumSet<IdentifierType> statementStarter = EnumSet.of(TYPE_DECLARATION, VAR, METHOD);
+    public static final EnumSet<IdentifierType> statementStarter = EnumSet.of(TYPE_DECLARATION, VAR, METHOD, RETURN);
 
     public static final EnumSet<IdentifierType> conditionalStarter = EnumSet.of(IF, FOR, WHILE);
 
@@ -0,0 +1,14 @@
+import java.util.List;
+
+public class IfStatement extends Statement {
+    public final List<Expression> conditions;
+    public final List<Block> branches;
+    public final Block elseBranch;
+
+    public IfStatement(List<Expression> conditions, List<Block> branches, Block elseBranch, int line){
+        super(line);
+        this.conditions = conditions;
+        this.branches = branches;
+        this.elseBranch = elseBranch;
+    }
+}
@@ -0,0 +1,27 @@
+// Extra code the Compiler can weave into a program, as a set of bits. None of it is emitted
+// unless asked for, so an uninstrumented program runs exactly as if this did not exist.
+// Instrumented loops stay in the interpreter.
+public final class Instrumentation {
+    public static final int NONE = 0;
+    // Counts and times lines, operators and loop iterations into a Profile.
+    public static final int PROFILE = 1;
+    // Reports every loop execution as an Events.Loop.
+    public static final int LOOP_EVENTS = 2;
+    // Publishes the position of the statement being executed for a SamplingProfiler.
+    public static final int SAMPLING = 4;
+
+    private Instrumentation(){}
+
+    // -Dprofile=true and -Devents.loops=true; sampling needs a SamplingProfiler to be useful, so
+    // it is only ever turned on along with one.
+    public static int fromProperties(){
+        int instrumentation = NONE;
+        if(Boolean.getBoolean("profile")){
+            instrumentation |= PROFILE;
+        }
+        if(Boolean.getBoolean("events.loops")){
+            instrumentation |= LOOP_EVENTS;
+        }
+        return instrumentation;
+    }
+}
@@ -0,0 +1,8 @@
+public class IntLiteral extends Expression {
+    public final int value;
+
+    public IntLiteral(int value, int line){
+        super(line);
+        this.value = value;
+    }
+}
@@ -1,6 +1,8 @@
 import java.io.BufferedReader;
-import java.io.FileReader;
-import java.util.ArrayList;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
 
 public class Interpreter {
     public static void main(String[] args) throws Exception {
@@ -8,18 +10,73 @@ public class Interpreter {
         if(args.length < 1){
             throw new Exception("Please provide input file");
         }
-        String fileName = args[0];
 
-        ArrayList<String> program = new ArrayList<>();
+        if(args[0].equals("--batch")){
+            batch(args);
+            return;
+        }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(fileName))) {
-            while (br.ready()) {
-                program.add(br.readLine());
+        if(args[0].equals("--repl")){
+            try(Output output = Output.stdout()){
+                new Repl(output).run(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)), System.out);
             }
+            return;
+        }
+
+        String fileName = args[0];
+
+        // -Dsample=<file> writes collapsed stacks sampled every -Dsample.interval microseconds.
+        String sampleFile = System.getProperty("sample");
+        SamplingProfiler sampler = sampleFile != null ? new SamplingProfiler() : null;
+        Engine engine = new Engine(sampler);
+        PreparedScript script = engine.compileFile(Path.of(fileName));
+        if(sampler != null){
+            sampler.start(Long.getLong("sample.interval", 1000));
+        }
+
+        // An optional second argument sends print output to a file instead of stdout.
+        Profile profile;
+        try(Output output = args.length > 1 ? Output.file(Path.of(args[1])) : Output.stdout()){
+            profile = engine.execute(script, output);
         }
+        if(profile != null){
+            System.err.print(profile.report());
+        }
+        if(sampler != null){
+            sampler.stop();
+            sampler.writeCollapsed(Path.of(sampleFile));
+        }
+
+    }
 
-        Parser parser = new Parser(program);
-        parser.run();
+    // --batch <directory or list file> [output directory]
+    private static void batch(String[] args) throws Exception {
+        if(args.length < 2){
+            throw new Exception("Please provide a script directory or list file");
+        }
+        Path outputDirectory = args.length > 2 ? Path.of(args[2]) : null;
+        List<Path> scripts = BatchRunner.scripts(Path.of(args[1]));
+
+        long start = System.nanoTime();
+        List<BatchRunner.Result> results = new BatchRunner(new Engine(), outputDirectory).run(scripts);
+        long elapsed = System.nanoTime() - start;
 
+        int failed = 0;
+        try(Output output = Output.stdout()){
+            for(BatchRunner.Result result : results){
+                if(outputDirectory == null){
+                    output.println("== " + result.script);
+                    for(String line : result.output){
+                        output.println(line);
+                    }
+                }
+                if(result.failed()){
+                    failed++;
+                    output.println("!! " + result.script + ": " + result.error);
+                }
+            }
+            double seconds = elapsed / 1e9;
+            output.println(results.size() + " scripts, " + failed + " failed, in " + String.format("%.3f", seconds) + "s (" + String.format("%.0f", results.size() / seconds) + " scripts/s)");
+        }
     }
 }
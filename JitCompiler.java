@@ -0,0 +1,602 @@
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Translates a hot loop region of a compiled Program into a JVM class. Every frame slot the loop
+// touches becomes a JVM local, an int or an array reference: slots declared inside the loop start
+// at zero or null, slots of enclosing scopes are read from the frame behind a tag or class guard on
+// entry and written back on exit, including when the loop throws. The frame is wherever the running
+// function's frame starts in the VM's arrays. Regions that use anything besides int, bool and array
+// variables are left to the interpreter.
+//
+// Types are tracked as JVM descriptor characters: I and Z, S for a string (only ever on the stack),
+// and the lower case of an element type for an array of it.
+public class JitCompiler {
+    private static final String RUN_DESCRIPTOR = "([I[Ljava/lang/Object;ILOutput;)I";
+    private static final int FIRST_VARIABLE_SLOT = 5;
+    // JVM locals of the run() arguments past this and the frame arrays.
+    private static final int FRAME_ARGUMENT = 3;
+    private static final int OUTPUT_ARGUMENT = 4;
+    private static final int MAX_VARIABLES = 250;
+    private static final int MAX_CODE_SIZE = 30000;
+
+    private static final int ACONST_NULL = 0x01;
+    private static final int ICONST_0 = 0x03;
+    private static final int ICONST_1 = 0x04;
+    private static final int ILOAD = 0x15;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_2 = 0x2c;
+    private static final int ALOAD = 0x19;
+    private static final int IALOAD = 0x2e;
+    private static final int AALOAD = 0x32;
+    private static final int BALOAD = 0x33;
+    private static final int ISTORE = 0x36;
+    private static final int ASTORE = 0x3a;
+    private static final int IASTORE = 0x4f;
+    private static final int AASTORE = 0x53;
+    private static final int BASTORE = 0x54;
+    private static final int POP = 0x57;
+    private static final int DUP = 0x59;
+    private static final int SWAP = 0x5f;
+    private static final int IADD = 0x60;
+    private static final int ISUB = 0x64;
+    private static final int IMUL = 0x68;
+    private static final int IDIV = 0x6c;
+    private static final int IREM = 0x70;
+    private static final int IAND = 0x7e;
+    private static final int IOR = 0x80;
+    private static final int IXOR = 0x82;
+    private static final int IINC = 0x84;
+    private static final int WIDE = 0xc4;
+    private static final int IFEQ = 0x99;
+    private static final int IFNE = 0x9a;
+    private static final int IF_ICMPEQ = 0x9f;
+    private static final int IF_ICMPNE = 0xa0;
+    private static final int IF_ICMPLT = 0xa1;
+    private static final int IF_ICMPGE = 0xa2;
+    private static final int IF_ICMPGT = 0xa3;
+    private static final int IF_ICMPLE = 0xa4;
+    private static final int IF_ACMPNE = 0xa6;
+    private static final int GOTO = 0xa7;
+    private static final int IRETURN = 0xac;
+    private static final int RETURN = 0xb1;
+    private static final int GETSTATIC = 0xb2;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int INVOKEINTERFACE = 0xb9;
+    private static final int ARRAYLENGTH = 0xbe;
+    private static final int ATHROW = 0xbf;
+    private static final int CHECKCAST = 0xc0;
+    private static final int INSTANCEOF = 0xc1;
+
+    private final Program program;
+    private final int header;
+    private final int end;
+    private final ClassFileWriter classFile;
+    private final ClassFileWriter.Code code;
+    private final Map<Integer, Integer> jvmLocals;
+    private final Map<Integer, Character> types;
+    private final Map<Integer, Character> externals;
+    private final Set<Integer> storedExternals;
+    private final Map<Integer, Integer> targetLabels;
+    private final Map<Integer, Integer> exitLabels;
+    // Where && and || rejoin, with their result on the stack.
+    private final Map<Integer, Integer> mergeLabels;
+    private int maxDepth;
+
+    private JitCompiler(Program program, int header, int end){
+        this.program = program;
+        this.header = header;
+        this.end = end;
+        this.classFile = new ClassFileWriter();
+        this.code = new ClassFileWriter.Code();
+        this.jvmLocals = new HashMap<>();
+        this.types = new HashMap<>();
+        this.externals = new LinkedHashMap<>();
+        this.storedExternals = new HashSet<>();
+        this.targetLabels = new HashMap<>();
+        this.exitLabels = new LinkedHashMap<>();
+        this.mergeLabels = new HashMap<>();
+    }
+
+    // Returns null when the region cannot be compiled; the interpreter keeps running it. The class
+    // file is written to memory, so an IOException only means something in it, like a string
+    // constant longer than 65535 bytes in modified UTF-8, does not fit the class file format.
+    public static CompiledLoop compile(Program program, int header, int end, Object[] localRefs, int frame) throws Exception {
+        try{
+            byte[] bytes = new JitCompiler(program, header, end).generate(localRefs, frame);
+            Class<?> loop = MethodHandles.lookup().defineHiddenClass(bytes, true).lookupClass();
+            return (CompiledLoop) loop.getDeclaredConstructor().newInstance();
+        }catch(Unsupported | IOException | ReflectiveOperationException | LinkageError e){
+            return null;
+        }
+    }
+
+    private byte[] generate(Object[] localRefs, int frame) throws Exception {
+        collectVariables(localRefs, frame);
+        entry();
+        int bodyStart = code.newLabel();
+        code.bind(bodyStart);
+        body();
+        int bodyEnd = code.newLabel();
+        code.bind(bodyEnd);
+        exits();
+        unwind(bodyStart, bodyEnd);
+
+        if(code.size() > MAX_CODE_SIZE){
+            throw new Unsupported();
+        }
+
+        ClassFileWriter.Code constructor = new ClassFileWriter.Code();
+        constructor.op(ALOAD_0).op(INVOKESPECIAL).u2(classFile.methodRef("java/lang/Object", "<init>", "()V")).op(RETURN);
+        classFile.method(0x0001, "<init>", "()V", constructor, 1, 1);
+        classFile.method(0x0001, "run", RUN_DESCRIPTOR, code, Math.max(maxDepth, 1) + 3, FIRST_VARIABLE_SLOT + jvmLocals.size());
+        return classFile.toByteArray("JitLoop", "java/lang/Object", "CompiledLoop");
+    }
+
+    private void collectVariables(Object[] localRefs, int frame) throws Exception {
+        int[] instructions = program.code;
+        Map<Integer, Character> declared = new HashMap<>();
+        Set<Integer> referenced = new HashSet<>();
+
+        for(int pc = header; pc < end; pc += 1 + Opcode.operandCount(instructions[pc])){
+            int opcode = instructions[pc];
+            if(opcode == Opcode.LOAD || opcode == Opcode.STORE || opcode == Opcode.UNCHECKED_STORE){
+                referenced.add(instructions[pc + 1]);
+            }else if(opcode == Opcode.DECLARE || opcode == Opcode.UNCHECKED_DECLARE){
+                char type = declaredType(instructions[pc + 2]);
+                Character previous = declared.put(instructions[pc + 1], type);
+                if(previous != null && previous != type){
+                    throw new Unsupported();
+                }
+            }else if(opcode == Opcode.INCREMENT){
+                referenced.add(instructions[pc + 1]);
+            }else if(opcode == Opcode.BRANCH_SLOT_CONST || opcode == Opcode.BRANCH_SLOT_SLOT){
+                referenced.add(instructions[pc + 2]);
+                if(opcode == Opcode.BRANCH_SLOT_SLOT){
+                    referenced.add(instructions[pc + 4]);
+                }
+            }
+            if(opcode == Opcode.JUMP || opcode == Opcode.JUMP_IF_FALSE || opcode == Opcode.UNCHECKED_JUMP_IF_FALSE
+                    || opcode == Opcode.BRANCH_SLOT_CONST || opcode == Opcode.BRANCH_SLOT_SLOT){
+                int target = instructions[pc + 1];
+                if(target >= header && target < end){
+                    targetLabels.putIfAbsent(target, code.newLabel());
+                }else{
+                    exitLabels.putIfAbsent(target, code.newLabel());
+                }
+            }else if(opcode == Opcode.SHORT_CIRCUIT || opcode == Opcode.UNCHECKED_SHORT_CIRCUIT){
+                mergeLabels.putIfAbsent(instructions[pc + 1], code.newLabel());
+            }
+        }
+
+        for(Map.Entry<Integer, Character> variable : declared.entrySet()){
+            define(variable.getKey(), variable.getValue());
+        }
+        for(int slot : referenced){
+            if(declared.containsKey(slot)){
+                continue;
+            }
+            Object ref = localRefs[frame + slot];
+            char type;
+            if(ref == ValueType.INT){
+                type = 'I';
+            }else if(ref == ValueType.BOOL){
+                type = 'Z';
+            }else if(ref instanceof int[]){
+                type = 'i';
+            }else if(ref instanceof boolean[]){
+                type = 'z';
+            }else if(ref instanceof String[]){
+                type = 's';
+            }else{
+                throw new Unsupported();
+            }
+            define(slot, type);
+            externals.put(slot, type);
+        }
+    }
+
+    private void define(int slot, char type) throws Unsupported {
+        if(jvmLocals.size() == MAX_VARIABLES){
+            throw new Unsupported();
+        }
+        jvmLocals.put(slot, FIRST_VARIABLE_SLOT + jvmLocals.size());
+        types.put(slot, type);
+    }
+
+    private static char declaredType(int type) throws Unsupported {
+        return switch(type){
+            case Opcode.TYPE_INT -> 'I';
+            case Opcode.TYPE_BOOL -> 'Z';
+            case Opcode.TYPE_INT_ARRAY -> 'i';
+            case Opcode.TYPE_BOOL_ARRAY -> 'z';
+            case Opcode.TYPE_STRING_ARRAY -> 's';
+            default -> throw new Unsupported();
+        };
+    }
+
+    private static char elementType(int type){
+        return type == Opcode.TYPE_INT ? 'I' : type == Opcode.TYPE_BOOL ? 'Z' : 'S';
+    }
+
+    private static boolean isArray(char type){
+        return Character.isLowerCase(type);
+    }
+
+    private static String descriptor(char type){
+        if(isArray(type)){
+            return "[" + descriptor(Character.toUpperCase(type));
+        }
+        return type == 'S' ? "Ljava/lang/String;" : String.valueOf(type);
+    }
+
+    private static int load(char type){
+        return isArray(type) ? ALOAD : ILOAD;
+    }
+
+    private static int store(char type){
+        return isArray(type) ? ASTORE : ISTORE;
+    }
+
+    // Pushes the frame array and the index of the slot in it.
+    private void frameSlot(int frameArray, int slot) throws IOException {
+        code.op(frameArray).op(ILOAD).u1(FRAME_ARGUMENT).pushInt(slot, classFile).op(IADD);
+    }
+
+    private void entry() throws IOException {
+        int deoptimize = code.newLabel();
+        for(Map.Entry<Integer, Integer> variable : jvmLocals.entrySet()){
+            int slot = variable.getKey();
+            Character type = externals.get(slot);
+            if(type == null){
+                code.op(isArray(types.get(slot)) ? ACONST_NULL : ICONST_0).op(store(types.get(slot))).u1(variable.getValue());
+                continue;
+            }
+            if(isArray(type)){
+                int arrayClass = classFile.classRef(descriptor(type));
+                frameSlot(ALOAD_2, slot);
+                code.op(AALOAD).op(INSTANCEOF).u2(arrayClass);
+                code.jump(IFEQ, deoptimize);
+                frameSlot(ALOAD_2, slot);
+                code.op(AALOAD).op(CHECKCAST).u2(arrayClass).op(ASTORE).u1(variable.getValue());
+                continue;
+            }
+            String tag = type == 'I' ? "INT" : "BOOL";
+            frameSlot(ALOAD_2, slot);
+            code.op(AALOAD);
+            code.op(GETSTATIC).u2(classFile.fieldRef("ValueType", tag, "LValueType;"));
+            code.jump(IF_ACMPNE, deoptimize);
+            frameSlot(ALOAD_1, slot);
+            code.op(IALOAD);
+            code.op(ISTORE).u1(variable.getValue());
+        }
+        int start = code.newLabel();
+        code.jump(GOTO, start);
+
+        code.bind(deoptimize);
+        code.pushInt(CompiledLoop.DEOPTIMIZE, classFile).op(IRETURN);
+        code.bind(start);
+    }
+
+    private void body() throws Exception {
+        int[] instructions = program.code;
+        Deque<Character> stack = new ArrayDeque<>();
+
+        for(int pc = header; pc < end; pc += 1 + Opcode.operandCount(instructions[pc])){
+            Integer label = targetLabels.get(pc);
+            if(label != null){
+                if(!stack.isEmpty()){
+                    throw new Unsupported();
+                }
+                code.bind(label);
+            }
+            Integer merge = mergeLabels.get(pc);
+            if(merge != null){
+                code.bind(merge);
+            }
+
+            int opcode = instructions[pc];
+            switch(opcode){
+                case Opcode.INT_CONST:
+                    code.pushInt(instructions[pc + 1], classFile);
+                    stack.push('I');
+                    break;
+                case Opcode.BOOL_CONST:
+                    code.op(instructions[pc + 1] != 0 ? ICONST_1 : ICONST_0);
+                    stack.push('Z');
+                    break;
+                case Opcode.STRING_CONST:
+                    code.ldc(classFile.string((String) program.constants[instructions[pc + 1]]));
+                    stack.push('S');
+                    break;
+                case Opcode.LOAD: {
+                    int slot = instructions[pc + 1];
+                    code.op(load(types.get(slot))).u1(jvmLocals.get(slot));
+                    stack.push(types.get(slot));
+                    break;
+                }
+                // The checks the unchecked opcodes skip hold here by construction: every type is
+                // known when the region is compiled.
+                case Opcode.STORE:
+                case Opcode.DECLARE:
+                case Opcode.UNCHECKED_STORE:
+                case Opcode.UNCHECKED_DECLARE: {
+                    int slot = instructions[pc + 1];
+                    expect(stack.pop(), types.get(slot));
+                    code.op(store(types.get(slot))).u1(jvmLocals.get(slot));
+                    if(externals.containsKey(slot)){
+                        storedExternals.add(slot);
+                    }
+                    break;
+                }
+                case Opcode.OPERATOR:
+                case Opcode.UNCHECKED_OPERATOR:
+                    operator(Operator.operators[instructions[pc + 1]], stack, program.lines[pc]);
+                    break;
+                case Opcode.JUMP:
+                    code.jump(GOTO, label(instructions[pc + 1]));
+                    break;
+                case Opcode.JUMP_IF_FALSE:
+                case Opcode.UNCHECKED_JUMP_IF_FALSE:
+                    expect(stack.pop(), 'Z');
+                    if(!stack.isEmpty()){
+                        throw new Unsupported();
+                    }
+                    code.jump(IFEQ, label(instructions[pc + 1]));
+                    break;
+                case Opcode.INCREMENT: {
+                    int slot = instructions[pc + 1];
+                    int amount = instructions[pc + 2];
+                    expect(types.get(slot), 'I');
+                    if(amount >= Short.MIN_VALUE && amount <= Short.MAX_VALUE){
+                        code.op(WIDE).op(IINC).u2(jvmLocals.get(slot)).u2(amount);
+                    }else{
+                        code.op(ILOAD).u1(jvmLocals.get(slot)).pushInt(amount, classFile).op(IADD).op(ISTORE).u1(jvmLocals.get(slot));
+                    }
+                    if(externals.containsKey(slot)){
+                        storedExternals.add(slot);
+                    }
+                    break;
+                }
+                case Opcode.BRANCH_SLOT_CONST:
+                case Opcode.BRANCH_SLOT_SLOT: {
+                    if(!stack.isEmpty()){
+                        throw new Unsupported();
+                    }
+                    int slot = instructions[pc + 2];
+                    int right = instructions[pc + 4];
+                    expect(types.get(slot), 'I');
+                    code.op(ILOAD).u1(jvmLocals.get(slot));
+                    if(opcode == Opcode.BRANCH_SLOT_CONST){
+                        code.pushInt(right, classFile);
+                    }else{
+                        expect(types.get(right), 'I');
+                        code.op(ILOAD).u1(jvmLocals.get(right));
+                    }
+                    maxDepth = Math.max(maxDepth, 2);
+                    code.jump(negated(Operator.operators[instructions[pc + 3]]), label(instructions[pc + 1]));
+                    break;
+                }
+                case Opcode.SHORT_CIRCUIT:
+                case Opcode.UNCHECKED_SHORT_CIRCUIT:
+                    // A left operand of another type fails in the interpreter instead.
+                    expect(stack.peek(), 'Z');
+                    code.op(DUP);
+                    code.jump(Operator.operators[instructions[pc + 2]] == Operator.OR ? IFNE : IFEQ, mergeLabels.get(instructions[pc + 1]));
+                    code.op(POP);
+                    stack.pop();
+                    break;
+                case Opcode.CHECK_BOOL:
+                    expect(stack.peek(), 'Z');
+                    break;
+                case Opcode.NEW_ARRAY: {
+                    expect(stack.pop(), 'I');
+                    char type = Character.toLowerCase(elementType(instructions[pc + 1]));
+                    code.pushInt(instructions[pc + 1], classFile).pushInt(program.lines[pc], classFile);
+                    code.op(INVOKESTATIC).u2(classFile.methodRef("VirtualMachine", "newArray", "(III)Ljava/lang/Object;"));
+                    code.op(CHECKCAST).u2(classFile.classRef(descriptor(type)));
+                    stack.push(type);
+                    break;
+                }
+                case Opcode.ARRAY_LENGTH:
+                    if(!isArray(stack.pop())){
+                        throw new Unsupported();
+                    }
+                    code.op(ARRAYLENGTH);
+                    stack.push('I');
+                    break;
+                // Elements whose index is proven in range go straight to the JVM; the rest go
+                // through the VM's check, so they fail with its error.
+                case Opcode.LOAD_ELEMENT:
+                case Opcode.UNCHECKED_LOAD_ELEMENT: {
+                    expect(stack.pop(), 'I');
+                    char array = stack.pop();
+                    if(!isArray(array)){
+                        throw new Unsupported();
+                    }
+                    char element = Character.toUpperCase(array);
+                    if(opcode == Opcode.LOAD_ELEMENT || instructions[pc + 2] != 0){
+                        code.pushInt(program.lines[pc], classFile);
+                        code.op(INVOKESTATIC).u2(classFile.methodRef("VirtualMachine", "element", "(" + descriptor(array) + "II)" + descriptor(element)));
+                    }else{
+                        code.op(element == 'I' ? IALOAD : element == 'Z' ? BALOAD : AALOAD);
+                    }
+                    stack.push(element);
+                    break;
+                }
+                case Opcode.STORE_ELEMENT:
+                case Opcode.UNCHECKED_STORE_ELEMENT: {
+                    char element = stack.pop();
+                    expect(stack.pop(), 'I');
+                    char array = stack.pop();
+                    expect(element, Character.toUpperCase(array));
+                    if(!isArray(array)){
+                        throw new Unsupported();
+                    }
+                    if(opcode == Opcode.STORE_ELEMENT || instructions[pc + 2] != 0){
+                        code.pushInt(program.lines[pc], classFile);
+                        code.op(INVOKESTATIC).u2(classFile.methodRef("VirtualMachine", "setElement", "(" + descriptor(array) + "I" + descriptor(element) + "I)V"));
+                    }else{
+                        code.op(element == 'I' ? IASTORE : element == 'Z' ? BASTORE : AASTORE);
+                    }
+                    break;
+                }
+                case Opcode.PRINT: {
+                    char type = stack.pop();
+                    if(isArray(type)){
+                        throw new Unsupported();
+                    }
+                    String descriptor = type == 'S' ? "(Ljava/lang/String;)V" : "(" + type + ")V";
+                    code.op(ALOAD).u1(OUTPUT_ARGUMENT).op(SWAP);
+                    code.op(INVOKEINTERFACE).u2(classFile.interfaceMethodRef("Output", "println", descriptor)).u1(2).u1(0);
+                    break;
+                }
+                default:
+                    throw new Unsupported();
+            }
+            maxDepth = Math.max(maxDepth, stack.size() + 1);
+        }
+    }
+
+    private void operator(Operator operator, Deque<Character> stack, int line) throws Exception {
+        if(operator == Operator.NOT){
+            expect(stack.pop(), 'Z');
+            code.op(ICONST_1).op(IXOR);
+            stack.push('Z');
+            return;
+        }
+
+        char right = stack.pop();
+        char left = stack.pop();
+        switch(operator){
+            case ADD, SUBTRACT, MULTIPLY, DIVIDE, MODULO -> {
+                expect(left, 'I');
+                expect(right, 'I');
+                if(operator == Operator.DIVIDE || operator == Operator.MODULO){
+                    code.pushInt(line, classFile);
+                    code.op(INVOKESTATIC).u2(classFile.methodRef("VirtualMachine", "divisor", "(II)I"));
+                }
+                code.op(arithmetic(operator));
+                stack.push('I');
+            }
+            case LESS, LESS_OR_EQUAL, GREATER, GREATER_OR_EQUAL -> {
+                expect(left, 'I');
+                expect(right, 'I');
+                compare(comparison(operator));
+                stack.push('Z');
+            }
+            case EQUAL, NOT_EQUAL -> {
+                if(left == 'S' || isArray(left)){
+                    throw new Unsupported();
+                }
+                expect(right, left);
+                compare(operator == Operator.EQUAL ? IF_ICMPEQ : IF_ICMPNE);
+                stack.push('Z');
+            }
+            case AND, OR -> {
+                expect(left, 'Z');
+                expect(right, 'Z');
+                code.op(operator == Operator.AND ? IAND : IOR);
+                stack.push('Z');
+            }
+            default -> throw new Unsupported();
+        }
+    }
+
+    private static int arithmetic(Operator operator){
+        return switch(operator){
+            case ADD -> IADD;
+            case SUBTRACT -> ISUB;
+            case MULTIPLY -> IMUL;
+            case DIVIDE -> IDIV;
+            default -> IREM;
+        };
+    }
+
+    private static int comparison(Operator operator){
+        return switch(operator){
+            case LESS -> IF_ICMPLT;
+            case LESS_OR_EQUAL -> IF_ICMPLE;
+            case GREATER -> IF_ICMPGT;
+            default -> IF_ICMPGE;
+        };
+    }
+
+    // The branch taken when the comparison is false.
+    private static int negated(Operator operator){
+        return switch(operator){
+            case EQUAL -> IF_ICMPNE;
+            case NOT_EQUAL -> IF_ICMPEQ;
+            case LESS -> IF_ICMPGE;
+            case LESS_OR_EQUAL -> IF_ICMPGT;
+            case GREATER -> IF_ICMPLE;
+            default -> IF_ICMPLT;
+        };
+    }
+
+    private void compare(int branch){
+        int isTrue = code.newLabel();
+        int done = code.newLabel();
+        code.jump(branch, isTrue);
+        code.op(ICONST_0);
+        code.jump(GOTO, done);
+        code.bind(isTrue);
+        code.op(ICONST_1);
+        code.bind(done);
+    }
+
+    private int label(int target){
+        Integer label = targetLabels.get(target);
+        return label != null ? label : exitLabels.get(target);
+    }
+
+    private void exits() throws IOException {
+        for(Map.Entry<Integer, Integer> exit : exitLabels.entrySet()){
+            code.bind(exit.getValue());
+            storeExternals();
+            code.pushInt(exit.getKey(), classFile).op(IRETURN);
+        }
+    }
+
+    // Anything thrown in the body, a division by zero or an index out of bounds, passes through
+    // here on its way out, so the frame keeps every change made before it as in the interpreter.
+    private void unwind(int start, int end) throws IOException {
+        int handler = code.newLabel();
+        code.catchAll(start, end, handler);
+        code.bind(handler);
+        storeExternals();
+        code.op(ATHROW);
+    }
+
+    private void storeExternals() throws IOException {
+        for(int slot : storedExternals){
+            if(isArray(types.get(slot))){
+                frameSlot(ALOAD_2, slot);
+                code.op(ALOAD).u1(jvmLocals.get(slot)).op(AASTORE);
+            }else{
+                frameSlot(ALOAD_1, slot);
+                code.op(ILOAD).u1(jvmLocals.get(slot)).op(IASTORE);
+            }
+        }
+    }
+
+    private static void expect(char actual, char expected) throws Unsupported {
+        if(actual != expected){
+            throw new Unsupported();
+        }
+    }
+
+    private static class Unsupported extends Exception {
+        private static final long serialVersionUID = 1L;
+    }
+}
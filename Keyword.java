@@ -0,0 +1,30 @@
+// Reserved words. Their identifiers are interned before any other name, so a token is a keyword
+// exactly when its identifier carries one.
+public enum Keyword {
+    PRINT("print", IdentifierType.METHOD),
+    INT("int", IdentifierType.TYPE_DECLARATION),
+    STRING("string", IdentifierType.TYPE_DECLARATION),
+    BOOL("bool", IdentifierType.TYPE_DECLARATION),
+    // Spelled as the element type followed by [], which the Parser puts together.
+    INT_ARRAY("int[]", IdentifierType.TYPE_DECLARATION),
+    STRING_ARRAY("string[]", IdentifierType.TYPE_DECLARATION),
+    BOOL_ARRAY("bool[]", IdentifierType.TYPE_DECLARATION),
+    NEW("new", IdentifierType.NEW),
+    LENGTH("len", IdentifierType.LENGTH),
+    IF("if", IdentifierType.IF),
+    ELIF("elif", IdentifierType.ELIF),
+    ELSE("else", IdentifierType.ELSE),
+    FOR("for", IdentifierType.FOR),
+    WHILE("while", IdentifierType.WHILE),
+    RETURN("return", IdentifierType.RETURN),
+    TRUE("true", IdentifierType.BOOLEAN),
+    FALSE("false", IdentifierType.BOOLEAN);
+
+    public final String lexeme;
+    public final IdentifierType type;
+
+    Keyword(String lexeme, IdentifierType type){
+        this.lexeme = lexeme;
+        this.type = type;
+    }
+}
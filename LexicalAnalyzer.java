@@ -1,94 +1,84 @@
-import java.util.ArrayList;
+import java.util.Arrays;
 
 public class LexicalAnalyzer {
-    private final ArrayList<String> program;
-    private char nextChar;
-    private CharClass charClass;
-    private CharClass tokenType;
-    private String lexeme;
-    private int lineIndex;
-    private int charIndex;
+    private final Source source;
 
-
-    public LexicalAnalyzer(ArrayList<String> program){
-        this.program = program;
-        lineIndex = 0;
-        charIndex = 0;
-    }
-
-    public boolean lex() throws Exception{
-        lexeme = "";
-        try {
-            getChar();
-        }catch(Exception e){
-            return false;
-        }
-
-        while(charClass == CharClass.WHITESPACE){
-            addChar();
-            getChar();
-        }
-        tokenType = charClass;
-
-        if(tokenType.isSingle()){
-            addChar();
-            return true;
-        }
-
-        do{
-            addChar();
-            getChar();
-        }while(tokenType.isType(nextChar));
-
-        return true;
-    }
-
-    private void getChar() throws Exception {
-        if(isEmpty()){
-            throw new Exception("Invalid statement on line " + lineIndex);
-        }
-        if(program.get(lineIndex).length() == charIndex){
-            lineIndex++;
-            charIndex = 0;
-            getChar();
-        }
-
-        String s = program.get(lineIndex);
-        nextChar = s.charAt(charIndex);
-        charClass = CharClass.firstCharType(nextChar);
+    public LexicalAnalyzer(Source source){
+        this.source = source;
     }
 
-    private void addChar(){
-        lexeme += nextChar;
-        String s = program.get(lineIndex);
-        if(s.length() == charIndex){
-            lineIndex++;
-            charIndex = 0;
-        }else{
-            charIndex++;
+    // Scans the whole program once. Lexemes exclude surrounding whitespace and a string literal is
+    // a single DOUBLE_QUOTE token spanning both quotes. Brackets are paired up on the way, so the
+    // parser finds the end of any block or parenthesis without scanning for it.
+    public Tokens tokenize() throws Exception{
+        Tokens tokens = new Tokens(source);
+        Symbols symbols = new Symbols(source);
+        int length = source.length();
+        int i = 0;
+        int[] openers = new int[16];
+        int depth = 0;
+        int strayClosers = 0;
+
+        while(i < length){
+            int c = source.byteAt(i);
+            int width = 1;
+            if(c >= 0x80){
+                width = source.width(i);
+                c = source.codePointAt(i);
+            }
+
+            CharClass type = CharClass.classify(c);
+            if(type == CharClass.WHITESPACE){
+                i += width;
+                continue;
+            }
+
+            int start = i;
+            i += width;
+            if(type == CharClass.DOUBLE_QUOTE){
+                while(i < length && source.byteAt(i) != '"'){
+                    i++;
+                }
+                if(i == length){
+                    throw new Exception("Unterminated string on line " + source.lineOf(start));
+                }
+                i++;
+            }else if(!type.isSingle()){
+                while(i < length){
+                    c = source.byteAt(i);
+                    width = 1;
+                    if(c >= 0x80){
+                        width = source.width(i);
+                        c = source.codePointAt(i);
+                    }
+                    if(!type.contains(c)){
+                        break;
+                    }
+                    i += width;
+                }
+            }
+            Operator operator = type.isOperator() ? Operator.of(source, start, i - start) : null;
+            Identifier identifier = type == CharClass.IDENTIFIER ? symbols.intern(start, i - start) : null;
+            tokens.add(type, start, i - start, operator, identifier);
+
+            if(type == CharClass.OPENER){
+                if(depth == openers.length){
+                    openers = Arrays.copyOf(openers, depth * 2);
+                }
+                openers[depth++] = tokens.size() - 1;
+            }else if(type == CharClass.CLOSER){
+                if(depth > 0 && closes(source.byteAt(tokens.start(openers[depth - 1])), source.byteAt(start))){
+                    tokens.match(openers[--depth], tokens.size() - 1);
+                }else{
+                    strayClosers++;
+                }
+            }
         }
+        tokens.unmatched(depth, strayClosers);
+        return tokens;
     }
 
-    public String getLexeme(){
-        return lexeme;
-    }
-
-    public CharClass getTokenType(){
-        return tokenType;
-    }
-
-    public int getLineIndex(){ return lineIndex; }
-
-    public boolean isEmpty(){
-        return lineIndex == program.size() - 1 && charIndex == program.get(program.size() - 1).length();
-    }
-
-    public int getCharIndex(){
-        return charIndex;
-    }
-
-    public void goTo(int line, int charIndex){
-        this.lineIndex = line;
-        this.charIndex = charIndex;
+    private static boolean closes(int opener, int closer){
+        return (opener == '(' && closer == ')') || (opener == '{' && closer == '}') || (opener == '[' && closer == ']');
     }
 }
@@ -0,0 +1,10 @@
+public class MethodCall extends Statement {
+    public final Identifier method;
+    public final Expression argument;
+
+    public MethodCall(Identifier method, Expression argument, int line){
+        super(line);
+        this.method = method;
+        this.argument = argument;
+    }
+}
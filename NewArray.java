@@ -0,0 +1,13 @@
+// new type[length]
+public class NewArray extends Expression {
+    public final Identifier type;
+    public final Expression length;
+    // Set by the Resolver.
+    public int elementType = -1;
+
+    public NewArray(Identifier type, Expression length, int line){
+        super(line);
+        this.type = type;
+        this.length = length;
+    }
+}
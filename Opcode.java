@@ -0,0 +1,127 @@
+public final class Opcode {
+    // operands: value
+    public static final int INT_CONST = 0;
+    // operands: 0 or 1
+    public static final int BOOL_CONST = 1;
+    // operands: constant index
+    public static final int STRING_CONST = 2;
+    // operands: frame slot
+    public static final int LOAD = 3;
+    // operands: frame slot
+    public static final int STORE = 4;
+    // operands: frame slot, declared type
+    public static final int DECLARE = 5;
+    // operands: Operator ordinal
+    public static final int OPERATOR = 6;
+    // operands: jump target
+    public static final int JUMP = 7;
+    // operands: jump target, construct the condition belongs to
+    public static final int JUMP_IF_FALSE = 8;
+    public static final int PRINT = 9;
+
+    // Only emitted when compiling with profiling on.
+    // operands: source line of the statement starting here
+    public static final int PROFILE_LINE = 10;
+    // operands: Operator ordinal; OPERATOR, timed
+    public static final int PROFILE_OPERATOR = 11;
+    // operands: construct of the loop whose body starts here
+    public static final int PROFILE_LOOP = 12;
+
+    // Only emitted when compiling with loop events on.
+    // operands: construct of the loop starting here
+    public static final int LOOP_ENTER = 13;
+    public static final int LOOP_ITERATION = 14;
+    public static final int LOOP_EXIT = 15;
+
+    // Only emitted when compiling for sampling; publishes its own pc as the VM's position.
+    public static final int POSITION = 16;
+
+    // && and ||. SHORT_CIRCUIT checks the left operand is a bool; if it decides the result it
+    // jumps to the target and leaves it as the result, otherwise it pops it and the right operand
+    // runs. CHECK_BOOL then checks the right operand is a bool, unless that is already certain.
+    // operands: jump target, Operator ordinal
+    public static final int SHORT_CIRCUIT = 17;
+    // operands: Operator ordinal
+    public static final int CHECK_BOOL = 18;
+
+    // Variants for operands the TypeChecker has proven to have the right types, which skip the
+    // VM's type checks. Same operands as the checked ones, less the construct of the jump.
+    public static final int UNCHECKED_OPERATOR = 19;
+    public static final int UNCHECKED_DECLARE = 20;
+    public static final int UNCHECKED_STORE = 21;
+    public static final int UNCHECKED_JUMP_IF_FALSE = 22;
+    public static final int UNCHECKED_SHORT_CIRCUIT = 23;
+
+    // Fused forms of the statements counted loops run every iteration, for int variables the
+    // TypeChecker has proven to be ints. Not emitted when profiling, which times each operator.
+    // x = x + c and x = x - c. operands: frame slot, amount to add
+    public static final int INCREMENT = 24;
+    // A condition comparing an int variable with a constant or another int variable; jumps to the
+    // target when it is false.
+    // operands: jump target, frame slot, Operator ordinal, constant
+    public static final int BRANCH_SLOT_CONST = 25;
+    // operands: jump target, frame slot, Operator ordinal, frame slot
+    public static final int BRANCH_SLOT_SLOT = 26;
+
+    // Function calls. The arguments are on the stack; the callee's frame starts past the caller's
+    // and its parameters take the first slots. TAIL_CALL reuses the caller's frame instead and so
+    // returns straight to the caller's caller. RETURN leaves the result on the stack in place of
+    // the arguments.
+    // operands: function entry pc, argument count, callee frame size, callee stack size
+    public static final int CALL = 27;
+    public static final int TAIL_CALL = 28;
+    public static final int RETURN = 29;
+    // Checks an argument whose type is not known statically.
+    // operands: parameter type
+    public static final int CHECK_TYPE = 30;
+    // Drops the result of a call whose value is not used.
+    public static final int POP = 31;
+
+    // Arrays. NEW_ARRAY checks the length is an int that is not negative and fills the array with
+    // 0, false or "". LOAD_ELEMENT and STORE_ELEMENT check the array, index and value types at
+    // runtime and the index against the length; ARRAY_LENGTH checks it is given an array.
+    // operands: element type
+    public static final int NEW_ARRAY = 32;
+    public static final int ARRAY_LENGTH = 33;
+    public static final int LOAD_ELEMENT = 34;
+    public static final int STORE_ELEMENT = 35;
+    // Variants for an array and index (and value) of known types. The bounds check is left out
+    // where the Optimizer has proven the index is in range.
+    // operands: element type, 1 to check the index against the length or 0
+    public static final int UNCHECKED_LOAD_ELEMENT = 36;
+    public static final int UNCHECKED_STORE_ELEMENT = 37;
+
+    public static final int TYPE_INT = 0;
+    public static final int TYPE_STRING = 1;
+    public static final int TYPE_BOOL = 2;
+    // An array type is its element type plus TYPE_INT_ARRAY.
+    public static final int TYPE_INT_ARRAY = 3;
+    public static final int TYPE_STRING_ARRAY = 4;
+    public static final int TYPE_BOOL_ARRAY = 5;
+
+    public static final int CONSTRUCT_IF = 0;
+    public static final int CONSTRUCT_WHILE = 1;
+    public static final int CONSTRUCT_FOR = 2;
+    // Only in sampling regions.
+    public static final int CONSTRUCT_FUNCTION = 3;
+
+    private static final int[] operandCounts = {1, 1, 1, 1, 1, 2, 1, 1, 2, 0, 1, 1, 1, 1, 0, 0, 0, 2, 1, 1, 2, 1, 1, 2, 2, 4, 4, 4, 4, 0, 1, 0, 1, 0, 0, 0, 2, 2};
+
+    private Opcode(){}
+
+    public static int operandCount(int opcode){
+        return operandCounts[opcode];
+    }
+
+    public static boolean isArray(int type){
+        return type >= TYPE_INT_ARRAY;
+    }
+
+    public static int arrayType(int elementType){
+        return elementType + TYPE_INT_ARRAY;
+    }
+
+    public static int elementType(int arrayType){
+        return arrayType - TYPE_INT_ARRAY;
+    }
+}
@@ -0,0 +1,228 @@
+// Every operator of the language. The lexer resolves operator tokens to one of these once, so the
+// parser and the VM never look operators up by lexeme. Evaluation is a single switch that works in
+// place on the VM's tagged operand stack: the operands are the top arity entries below top and the
+// result replaces the deepest of them.
+//
+// Operators of equal precedence have always grouped to the right (10 - 3 - 2 is 9), so every
+// operator is marked right associative.
+public enum Operator {
+    ADD("+", 4, 2, true),
+    SUBTRACT("-", 4, 2, true),
+    MULTIPLY("*", 5, 2, true),
+    DIVIDE("/", 5, 2, true),
+    MODULO("%", 5, 2, true),
+    EQUAL("==", 2, 2, true),
+    AND("&&", 1, 2, true),
+    OR("||", 0, 2, true),
+    NOT_EQUAL("!=", 2, 2, true),
+    NOT("!", 6, 1, true),
+    LESS("<", 3, 2, true),
+    LESS_OR_EQUAL("<=", 3, 2, true),
+    GREATER(">", 3, 2, true),
+    GREATER_OR_EQUAL(">=", 3, 2, true);
+
+    public static final Operator[] operators = values();
+
+    public final String lexeme;
+    public final int precedence;
+    public final int arity;
+    public final boolean rightAssociative;
+
+    Operator(String lexeme, int precedence, int arity, boolean rightAssociative){
+        this.lexeme = lexeme;
+        this.precedence = precedence;
+        this.arity = arity;
+        this.rightAssociative = rightAssociative;
+    }
+
+    // Whether this operator, arriving after top, must wait for top to be reduced first.
+    public boolean yieldsTo(Operator top){
+        return precedence < top.precedence || (!rightAssociative && precedence == top.precedence);
+    }
+
+    // Operator spelled by the length bytes at start, or null if they spell none.
+    public static Operator of(Source source, int start, int length){
+        int first = source.byteAt(start);
+        if(length == 1){
+            return switch(first){
+                case '+' -> ADD;
+                case '-' -> SUBTRACT;
+                case '*' -> MULTIPLY;
+                case '/' -> DIVIDE;
+                case '%' -> MODULO;
+                case '!' -> NOT;
+                case '<' -> LESS;
+                case '>' -> GREATER;
+                default -> null;
+            };
+        }
+        if(length == 2){
+            int second = source.byteAt(start + 1);
+            if(second == '='){
+                return switch(first){
+                    case '=' -> EQUAL;
+                    case '!' -> NOT_EQUAL;
+                    case '<' -> LESS_OR_EQUAL;
+                    case '>' -> GREATER_OR_EQUAL;
+                    default -> null;
+                };
+            }
+            if(first == '&' && second == '&'){
+                return AND;
+            }
+            if(first == '|' && second == '|'){
+                return OR;
+            }
+        }
+        return null;
+    }
+
+    public void evaluate(int[] values, Object[] refs, int top, int line) throws Exception {
+        switch(this){
+            case ADD:
+                checkInts(refs, top, "add", line);
+                values[top - 2] = values[top - 2] + values[top - 1];
+                break;
+            case SUBTRACT:
+                checkInts(refs, top, "subtract", line);
+                values[top - 2] = values[top - 2] - values[top - 1];
+                break;
+            case MULTIPLY:
+                checkInts(refs, top, "multiply", line);
+                values[top - 2] = values[top - 2] * values[top - 1];
+                break;
+            case DIVIDE:
+                checkInts(refs, top, "divide", line);
+                values[top - 2] = values[top - 2] / values[top - 1];
+                break;
+            case MODULO:
+                checkInts(refs, top, "mod", line);
+                values[top - 2] = values[top - 2] % values[top - 1];
+                break;
+            case EQUAL:
+                values[top - 2] = equal(values, refs, top) ? 1 : 0;
+                refs[top - 2] = ValueType.BOOL;
+                break;
+            case NOT_EQUAL:
+                values[top - 2] = equal(values, refs, top) ? 0 : 1;
+                refs[top - 2] = ValueType.BOOL;
+                break;
+            case AND:
+                checkBools(refs, top, "and", line);
+                values[top - 2] = values[top - 2] & values[top - 1];
+                break;
+            case OR:
+                checkBools(refs, top, "or", line);
+                values[top - 2] = values[top - 2] | values[top - 1];
+                break;
+            case NOT:
+                if(refs[top - 1] != ValueType.BOOL){
+                    throw new Exception("Attempted to and non boolean type " + ValueType.classOf(refs[top - 1]) + " on line " + line);
+                }
+                values[top - 1] ^= 1;
+                break;
+            case LESS:
+                checkInts(refs, top, "compare", line);
+                values[top - 2] = values[top - 2] < values[top - 1] ? 1 : 0;
+                refs[top - 2] = ValueType.BOOL;
+                break;
+            case LESS_OR_EQUAL:
+                checkInts(refs, top, "compare", line);
+                values[top - 2] = values[top - 2] <= values[top - 1] ? 1 : 0;
+                refs[top - 2] = ValueType.BOOL;
+                break;
+            case GREATER:
+                checkInts(refs, top, "compare", line);
+                values[top - 2] = values[top - 2] > values[top - 1] ? 1 : 0;
+                refs[top - 2] = ValueType.BOOL;
+                break;
+            case GREATER_OR_EQUAL:
+                checkInts(refs, top, "compare", line);
+                values[top - 2] = values[top - 2] >= values[top - 1] ? 1 : 0;
+                refs[top - 2] = ValueType.BOOL;
+                break;
+        }
+    }
+
+    // evaluate() for operands of the right types, as proven by the TypeChecker.
+    public void apply(int[] values, Object[] refs, int top){
+        switch(this){
+            case ADD -> values[top - 2] = values[top - 2] + values[top - 1];
+            case SUBTRACT -> values[top - 2] = values[top - 2] - values[top - 1];
+            case MULTIPLY -> values[top - 2] = values[top - 2] * values[top - 1];
+            case DIVIDE -> values[top - 2] = values[top - 2] / values[top - 1];
+            case MODULO -> values[top - 2] = values[top - 2] % values[top - 1];
+            case AND -> values[top - 2] = values[top - 2] & values[top - 1];
+            case OR -> values[top - 2] = values[top - 2] | values[top - 1];
+            case NOT -> values[top - 1] ^= 1;
+            case EQUAL, NOT_EQUAL, LESS, LESS_OR_EQUAL, GREATER, GREATER_OR_EQUAL -> {
+                boolean result = switch(this){
+                    case EQUAL -> equal(values, refs, top);
+                    case NOT_EQUAL -> !equal(values, refs, top);
+                    case LESS -> values[top - 2] < values[top - 1];
+                    case LESS_OR_EQUAL -> values[top - 2] <= values[top - 1];
+                    case GREATER -> values[top - 2] > values[top - 1];
+                    default -> values[top - 2] >= values[top - 1];
+                };
+                values[top - 2] = result ? 1 : 0;
+                refs[top - 2] = ValueType.BOOL;
+            }
+        }
+    }
+
+    // A comparison or equality of two ints.
+    public boolean compare(int left, int right){
+        return switch(this){
+            case EQUAL -> left == right;
+            case NOT_EQUAL -> left != right;
+            case LESS -> left < right;
+            case LESS_OR_EQUAL -> left <= right;
+            case GREATER -> left > right;
+            default -> left >= right;
+        };
+    }
+
+    // The left operand of && or || decides the result on its own when it is false or true
+    // respectively. Throws if it is not a bool.
+    public boolean decides(int value, Object ref, int line) throws Exception {
+        if(ref != ValueType.BOOL){
+            throw nonBoolean(ref, line);
+        }
+        return (value != 0) == (this == OR);
+    }
+
+    public void checkBool(Object ref, int line) throws Exception {
+        if(ref != ValueType.BOOL){
+            throw nonBoolean(ref, line);
+        }
+    }
+
+    private Exception nonBoolean(Object ref, int line){
+        return new Exception("Attempted to " + (this == OR ? "or" : "and") + " non boolean type " + ValueType.classOf(ref) + " on line " + line);
+    }
+
+    private static boolean equal(int[] values, Object[] refs, int top){
+        Object x = refs[top - 1];
+        Object y = refs[top - 2];
+        if(ValueType.isString(x)){
+            return x.equals(y);
+        }
+        return x == y && values[top - 1] == values[top - 2];
+    }
+
+    private static void checkInts(Object[] refs, int top, String verb, int line) throws Exception {
+        if(refs[top - 1] != ValueType.INT || refs[top - 2] != ValueType.INT){
+            throw incompatible(refs, top, verb, line);
+        }
+    }
+
+    private static void checkBools(Object[] refs, int top, String verb, int line) throws Exception {
+        if(refs[top - 1] != ValueType.BOOL || refs[top - 2] != ValueType.BOOL){
+            throw incompatible(refs, top, verb, line);
+        }
+    }
+
+    private static Exception incompatible(Object[] refs, int top, String verb, int line){
+        return new Exception("Attempted to " + verb + " incompatible types " + ValueType.classOf(refs[top - 1]) + " and " + ValueType.classOf(refs[top - 2]) + " on line " + line);
+    }
+}
@@ -0,0 +1,832 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+// Rewrites a resolved AST before it is compiled: folds constant expressions with the same
+// Operator.evaluate the VM uses, removes if/elif/while/for branches whose condition is a constant,
+// moves work out of loops, proves array indexes in range, and drops stores to variables that are
+// never read. Anything that could fail at runtime (a type mismatch, a division by zero, an index
+// out of range) is left alone so the program still fails the same way, on the same line, only if
+// it gets there.
+//
+// Calls to small functions that only return an expression are inlined when their arguments are safe
+// to evaluate in any order, or more than once.
+//
+// Loop rewrites need variables of their own. They get slots past the end of the resolved frame,
+// so the frame grows to frameSize().
+public class Optimizer {
+    private static final int UNKNOWN = -1;
+    private static final Identifier loopVariable = Identifier.of("<loop>");
+    // Most expression nodes a function can return to be inlined.
+    private static final int INLINE_SIZE = 24;
+    // Most nodes an argument can have to be copied to every use of its parameter.
+    private static final int COPY_SIZE = 3;
+
+    private int[] slotTypes;
+    private Declaration[] liveDeclarations;
+    private final Set<Declaration> readDeclarations;
+    private final boolean keepTopLevel;
+    private final Set<FunctionDeclaration> inlining;
+
+    public Optimizer(int frameSize){
+        this(frameSize, false);
+    }
+
+    // With keepTopLevel on, variables declared at the top level are read by something that runs
+    // after the program, so stores to them are never dropped.
+    public Optimizer(int frameSize, boolean keepTopLevel){
+        this.slotTypes = new int[frameSize];
+        // Slots that are never declared hold globals, whose type only the host knows.
+        Arrays.fill(slotTypes, UNKNOWN);
+        this.liveDeclarations = new Declaration[frameSize];
+        this.readDeclarations = new HashSet<>();
+        this.keepTopLevel = keepTopLevel;
+        this.inlining = new HashSet<>();
+    }
+
+    // Gives a slot that holds a value when the program starts, like a function parameter, a type.
+    public void declare(int slot, int type){
+        slotTypes[slot] = type;
+    }
+
+    public int frameSize(){
+        return slotTypes.length;
+    }
+
+    public Block optimize(Block program) throws Exception {
+        Block folded = loops(block(program));
+        markReads(folded);
+        if(keepTopLevel){
+            for(Statement statement : folded.statements){
+                if(statement instanceof Declaration declaration){
+                    readDeclarations.add(declaration);
+                }
+            }
+        }
+        return removeDeadStores(folded);
+    }
+
+    private Block block(Block block) throws Exception {
+        List<Statement> statements = new ArrayList<>();
+        for(Statement statement : block.statements){
+            Statement optimized = statement(statement);
+            if(optimized != null){
+                statements.add(optimized);
+            }
+        }
+        return new Block(statements, block.line);
+    }
+
+    // Returns null when the statement can never run.
+    private Statement statement(Statement statement) throws Exception {
+        if(statement instanceof Declaration declaration){
+            Declaration optimized = new Declaration(declaration.type, declaration.name, expression(declaration.value), declaration.line);
+            optimized.slot = declaration.slot;
+            slotTypes[declaration.slot] = Compiler.type(declaration.type);
+            return optimized;
+        }else if(statement instanceof Assignment assignment){
+            Assignment optimized = new Assignment(assignment.name, expression(assignment.value), assignment.line);
+            optimized.slot = assignment.slot;
+            return optimized;
+        }else if(statement instanceof ElementAssignment elementAssignment){
+            return new ElementAssignment((ElementAccess) expression(elementAssignment.target), expression(elementAssignment.value), elementAssignment.line);
+        }else if(statement instanceof MethodCall methodCall){
+            return new MethodCall(methodCall.method, expression(methodCall.argument), methodCall.line);
+        }else if(statement instanceof CallStatement callStatement){
+            return new CallStatement(arguments(callStatement.call), callStatement.line);
+        }else if(statement instanceof Return returnStatement){
+            return new Return(expression(returnStatement.value), returnStatement.line);
+        }else if(statement instanceof Block block){
+            return block(block);
+        }else if(statement instanceof IfStatement ifStatement){
+            return ifStatement(ifStatement);
+        }else if(statement instanceof WhileLoop whileLoop){
+            Expression condition = expression(whileLoop.condition);
+            if(condition instanceof BoolLiteral literal && !literal.value){
+                return null;
+            }
+            return new WhileLoop(condition, block(whileLoop.body), whileLoop.line);
+        }else if(statement instanceof ForLoop forLoop){
+            Statement initializer = statement(forLoop.initializer);
+            Expression condition = expression(forLoop.condition);
+            if(condition instanceof BoolLiteral literal && !literal.value){
+                return new Block(List.of(initializer), forLoop.line);
+            }
+            // Before loops() can hoist the len(x) out of the condition.
+            return inBounds(new ForLoop(initializer, condition, statement(forLoop.adjustment), block(forLoop.body), forLoop.line));
+        }
+        return statement;
+    }
+
+    private Statement ifStatement(IfStatement ifStatement) throws Exception {
+        List<Expression> conditions = new ArrayList<>();
+        List<Block> branches = new ArrayList<>();
+        for(int i = 0; i < ifStatement.conditions.size(); i++){
+            Expression condition = expression(ifStatement.conditions.get(i));
+            Block branch = block(ifStatement.branches.get(i));
+            if(condition instanceof BoolLiteral literal){
+                if(!literal.value){
+                    continue;
+                }
+                // Later branches can never be taken, and this one becomes the else.
+                return conditions.isEmpty() ? branch : new IfStatement(conditions, branches, branch, ifStatement.line);
+            }
+            conditions.add(condition);
+            branches.add(branch);
+        }
+
+        Block elseBranch = ifStatement.elseBranch == null ? null : block(ifStatement.elseBranch);
+        if(conditions.isEmpty()){
+            return elseBranch;
+        }
+        return new IfStatement(conditions, branches, elseBranch, ifStatement.line);
+    }
+
+    private Expression expression(Expression expression) throws Exception {
+        if(expression instanceof BinaryOperation binaryOperation){
+            Expression left = expression(binaryOperation.left);
+            Expression right = expression(binaryOperation.right);
+            BinaryOperation optimized = new BinaryOperation(binaryOperation.operator, left, right, binaryOperation.line);
+            if(isLiteral(left) && isLiteral(right)){
+                Expression folded = fold(optimized, left, right);
+                if(folded != optimized){
+                    return folded;
+                }
+            }
+            return simplify(optimized);
+        }else if(expression instanceof UnaryOperation unaryOperation){
+            Expression operand = expression(unaryOperation.operand);
+            UnaryOperation optimized = new UnaryOperation(unaryOperation.operator, operand, unaryOperation.line);
+            if(isLiteral(operand)){
+                return fold(optimized, operand);
+            }
+            return optimized;
+        }else if(expression instanceof NewArray newArray){
+            return newArray(newArray, expression(newArray.length));
+        }else if(expression instanceof ArrayLength arrayLength){
+            return new ArrayLength(expression(arrayLength.array), arrayLength.line);
+        }else if(expression instanceof ElementAccess elementAccess){
+            return elementAccess(elementAccess, expression(elementAccess.array), expression(elementAccess.index));
+        }else if(expression instanceof Call call){
+            return inline(arguments(call));
+        }
+        return expression;
+    }
+
+    private static NewArray newArray(NewArray newArray, Expression length){
+        NewArray rebuilt = new NewArray(newArray.type, length, newArray.line);
+        rebuilt.elementType = newArray.elementType;
+        return rebuilt;
+    }
+
+    private static ElementAccess elementAccess(ElementAccess elementAccess, Expression array, Expression index){
+        ElementAccess rebuilt = new ElementAccess(array, index, elementAccess.line);
+        rebuilt.inBounds = elementAccess.inBounds;
+        return rebuilt;
+    }
+
+    private Call arguments(Call call) throws Exception {
+        List<Expression> arguments = new ArrayList<>();
+        for(Expression argument : call.arguments){
+            arguments.add(expression(argument));
+        }
+        return withArguments(call, arguments);
+    }
+
+    // Replaces a call to a function whose whole body is one small return with the returned
+    // expression, the arguments standing in for the parameters. Arguments have to be safe and of
+    // the parameter's type, and only small ones are copied to more than one use; the function must
+    // not be able to call itself.
+    private Expression inline(Call call) throws Exception {
+        FunctionDeclaration function = call.function;
+        if(function.body.statements.size() != 1 || !(function.body.statements.get(0) instanceof Return result)
+                || size(result.value) > INLINE_SIZE || inlining.contains(function) || isRecursive(function)){
+            return call;
+        }
+        for(int i = 0; i < call.arguments.size(); i++){
+            Expression argument = call.arguments.get(i);
+            if(!isSafe(argument) || type(argument) != function.parameterTypes[i]){
+                return call;
+            }
+            if(size(argument) > COPY_SIZE && uses(result.value, i) > 1){
+                return call;
+            }
+        }
+        // Only parameters can be in scope in a body that is a single return.
+        Expression body = rewrite(result.value, expression -> expression instanceof Variable variable ? call.arguments.get(variable.slot) : null);
+        inlining.add(function);
+        try{
+            return expression(body);
+        }finally{
+            inlining.remove(function);
+        }
+    }
+
+    private static boolean isRecursive(FunctionDeclaration function){
+        Set<FunctionDeclaration> reached = new HashSet<>();
+        List<FunctionDeclaration> pending = new ArrayList<>(List.of(function));
+        while(!pending.isEmpty()){
+            List<FunctionDeclaration> callees = new ArrayList<>();
+            rewrite(pending.remove(pending.size() - 1).body, expression -> {
+                if(expression instanceof Call call){
+                    callees.add(call.function);
+                }
+                return null;
+            });
+            for(FunctionDeclaration callee : callees){
+                if(callee == function){
+                    return true;
+                }
+                if(reached.add(callee)){
+                    pending.add(callee);
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int size(Expression expression){
+        if(expression instanceof BinaryOperation binaryOperation){
+            return 1 + size(binaryOperation.left) + size(binaryOperation.right);
+        }else if(expression instanceof UnaryOperation unaryOperation){
+            return 1 + size(unaryOperation.operand);
+        }else if(expression instanceof NewArray newArray){
+            return 1 + size(newArray.length);
+        }else if(expression instanceof ArrayLength arrayLength){
+            return 1 + size(arrayLength.array);
+        }else if(expression instanceof ElementAccess elementAccess){
+            return 1 + size(elementAccess.array) + size(elementAccess.index);
+        }else if(expression instanceof Call call){
+            int size = 1;
+            for(Expression argument : call.arguments){
+                size += size(argument);
+            }
+            return size;
+        }
+        return 1;
+    }
+
+    private static int uses(Expression expression, int slot){
+        int[] uses = {0};
+        rewrite(expression, inner -> {
+            if(isVariable(inner, slot)){
+                uses[0]++;
+            }
+            return null;
+        });
+        return uses[0];
+    }
+
+    private static Call withArguments(Call call, List<Expression> arguments){
+        Call rebuilt = new Call(call.name, arguments, call.line);
+        rebuilt.function = call.function;
+        return rebuilt;
+    }
+
+    // Evaluates the operator on literal operands, keeping the operation if evaluation fails.
+    private Expression fold(Expression operation, Expression... operands){
+        Operator operator = operation instanceof BinaryOperation binary ? binary.operator : ((UnaryOperation) operation).operator;
+        int[] values = new int[operands.length];
+        Object[] refs = new Object[operands.length];
+        for(int i = 0; i < operands.length; i++){
+            Expression operand = operands[i];
+            if(operand instanceof IntLiteral literal){
+                values[i] = literal.value;
+                refs[i] = ValueType.INT;
+            }else if(operand instanceof BoolLiteral literal){
+                values[i] = literal.value ? 1 : 0;
+                refs[i] = ValueType.BOOL;
+            }else{
+                refs[i] = ((StringLiteral) operand).value;
+            }
+        }
+
+        try{
+            operator.evaluate(values, refs, operands.length, operation.line);
+        }catch(Exception e){
+            return operation;
+        }
+
+        if(refs[0] == ValueType.INT){
+            return new IntLiteral(values[0], operation.line);
+        }else if(refs[0] == ValueType.BOOL){
+            return new BoolLiteral(values[0] != 0, operation.line);
+        }
+        return new StringLiteral((String) refs[0], operation.line);
+    }
+
+    // && and || with one constant side. A constant left side that decides the result means the
+    // right side never runs; any other simplification needs the other side known to be a bool.
+    private Expression simplify(BinaryOperation operation){
+        if(operation.operator != Operator.AND && operation.operator != Operator.OR){
+            return operation;
+        }
+        boolean identity = operation.operator == Operator.AND;
+        if(operation.left instanceof BoolLiteral literal && literal.value != identity){
+            return new BoolLiteral(literal.value, operation.line);
+        }
+
+        BoolLiteral constant;
+        Expression other;
+        if(operation.left instanceof BoolLiteral literal){
+            constant = literal;
+            other = operation.right;
+        }else if(operation.right instanceof BoolLiteral literal){
+            constant = literal;
+            other = operation.left;
+        }else{
+            return operation;
+        }
+        if(type(other) != Opcode.TYPE_BOOL){
+            return operation;
+        }
+
+        if(constant.value == identity){
+            return other;
+        }
+        // The left side still runs first, so it must not be able to fail.
+        return isSafe(other) ? new BoolLiteral(constant.value, operation.line) : operation;
+    }
+
+    // Replays the declarations in order, like removeDeadStores, so slotTypes describe the variables
+    // in scope at each loop.
+    private Block loops(Block block) throws Exception {
+        List<Statement> statements = new ArrayList<>();
+        for(Statement statement : block.statements){
+            statements.add(loops(statement));
+        }
+        return new Block(statements, block.line);
+    }
+
+    private Statement loops(Statement statement) throws Exception {
+        if(statement instanceof Declaration declaration){
+            slotTypes[declaration.slot] = Compiler.type(declaration.type);
+        }else if(statement instanceof Block block){
+            return loops(block);
+        }else if(statement instanceof IfStatement ifStatement){
+            List<Block> branches = new ArrayList<>();
+            for(Block branch : ifStatement.branches){
+                branches.add(loops(branch));
+            }
+            Block elseBranch = ifStatement.elseBranch == null ? null : loops(ifStatement.elseBranch);
+            return new IfStatement(ifStatement.conditions, branches, elseBranch, ifStatement.line);
+        }else if(statement instanceof WhileLoop || statement instanceof ForLoop){
+            return loop(statement);
+        }
+        return statement;
+    }
+
+    // Declarations of the new variables a loop needs go in a block in front of it. The loops
+    // inside are done after the one around them, so what they hoist can move out further still.
+    private Statement loop(Statement loop) throws Exception {
+        List<Statement> hoisted = new ArrayList<>();
+        if(loop instanceof ForLoop forLoop){
+            if(forLoop.initializer instanceof Declaration declaration){
+                slotTypes[declaration.slot] = Compiler.type(declaration.type);
+            }
+            loop = rollingCounters(forLoop, hoisted);
+        }
+
+        Set<Integer> written = new HashSet<>();
+        writes(loop, written);
+        Function<Expression, Expression> hoist = expression -> {
+            if(isLiteral(expression) || expression instanceof Variable || !isSafe(expression) || !isInvariant(expression, written)){
+                return null;
+            }
+            return newVariable(type(expression), expression, hoisted);
+        };
+
+        if(loop instanceof WhileLoop whileLoop){
+            Expression condition = rewrite(whileLoop.condition, hoist);
+            Block body = (Block) rewrite(whileLoop.body, hoist);
+            loop = new WhileLoop(condition, loops(body), whileLoop.line);
+        }else{
+            ForLoop forLoop = (ForLoop) loop;
+            Expression condition = rewrite(forLoop.condition, hoist);
+            Block body = (Block) rewrite(forLoop.body, hoist);
+            Statement adjustment = rewrite(forLoop.adjustment, hoist);
+            loop = new ForLoop(forLoop.initializer, condition, adjustment, loops(body), forLoop.line);
+        }
+
+        if(hoisted.isEmpty()){
+            return loop;
+        }
+        hoisted.add(loop);
+        return new Block(hoisted, loop.line);
+    }
+
+    // for(int i = a; i < len(x); i = i + 1) with a literal a >= 0, and for(int i = len(x) - 1; i >= 0;
+    // i = i - c) with a literal c > 0, where the body leaves i and x alone: every x[i] in the body is
+    // in range, so nothing has to check it.
+    private ForLoop inBounds(ForLoop loop){
+        if(!(loop.initializer instanceof Declaration initializer) || slotTypes[initializer.slot] != Opcode.TYPE_INT
+                || !(loop.adjustment instanceof Assignment adjustment) || adjustment.slot != initializer.slot
+                || !(adjustment.value instanceof BinaryOperation step) || !isVariable(step.left, initializer.slot)
+                || !(step.right instanceof IntLiteral stride) || !(loop.condition instanceof BinaryOperation condition)
+                || !isVariable(condition.left, initializer.slot)){
+            return loop;
+        }
+        int slot = initializer.slot;
+        Expression array;
+        if(step.operator == Operator.ADD && stride.value == 1 && initializer.value instanceof IntLiteral start && start.value >= 0
+                && condition.operator == Operator.LESS && condition.right instanceof ArrayLength length){
+            array = length.array;
+        }else if(step.operator == Operator.SUBTRACT && stride.value > 0 && initializer.value instanceof BinaryOperation last
+                && last.operator == Operator.SUBTRACT && last.left instanceof ArrayLength length
+                && last.right instanceof IntLiteral one && one.value == 1
+                && condition.operator == Operator.GREATER_OR_EQUAL && condition.right instanceof IntLiteral zero && zero.value == 0){
+            array = length.array;
+        }else{
+            return loop;
+        }
+        if(!(array instanceof Variable variable) || !Opcode.isArray(slotTypes[variable.slot])){
+            return loop;
+        }
+        Set<Integer> bodyWrites = new HashSet<>();
+        writes(loop.body, bodyWrites);
+        if(bodyWrites.contains(slot) || bodyWrites.contains(variable.slot)){
+            return loop;
+        }
+
+        Block body = (Block) rewrite(loop.body, expression -> {
+            if(expression instanceof ElementAccess access && isVariable(access.array, variable.slot) && isVariable(access.index, slot)){
+                ElementAccess proven = elementAccess(access, access.array, access.index);
+                proven.inBounds = true;
+                return proven;
+            }
+            return null;
+        });
+        return new ForLoop(initializer, loop.condition, loop.adjustment, body, loop.line);
+    }
+
+    // for(int i = a; i < n; i = i + c), or i <= n, with literals a >= 0, n and c > 0, where the body
+    // leaves i alone: i counts up without overflowing, so each i % k with a literal k >= c can be
+    // kept in a variable that steps with i and wraps at k instead of dividing every time.
+    private ForLoop rollingCounters(ForLoop loop, List<Statement> hoisted) throws Exception {
+        if(!(loop.initializer instanceof Declaration initializer) || slotTypes[initializer.slot] != Opcode.TYPE_INT
+                || !(initializer.value instanceof IntLiteral start) || start.value < 0){
+            return loop;
+        }
+        int slot = initializer.slot;
+        if(!(loop.adjustment instanceof Assignment adjustment) || adjustment.slot != slot
+                || !(adjustment.value instanceof BinaryOperation step) || step.operator != Operator.ADD
+                || !isVariable(step.left, slot) || !(step.right instanceof IntLiteral stride) || stride.value <= 0){
+            return loop;
+        }
+        if(!(loop.condition instanceof BinaryOperation condition) || !isVariable(condition.left, slot)
+                || (condition.operator != Operator.LESS && condition.operator != Operator.LESS_OR_EQUAL)
+                || !(condition.right instanceof IntLiteral limit) || (long) limit.value + stride.value > Integer.MAX_VALUE){
+            return loop;
+        }
+        Set<Integer> bodyWrites = new HashSet<>();
+        writes(loop.body, bodyWrites);
+        if(bodyWrites.contains(slot)){
+            return loop;
+        }
+
+        // Modulus to the counter that stands in for i % modulus.
+        Map<Integer, Variable> counters = new LinkedHashMap<>();
+        Function<Expression, Expression> replace = expression -> {
+            if(expression instanceof BinaryOperation operation && operation.operator == Operator.MODULO && isVariable(operation.left, slot)
+                    && operation.right instanceof IntLiteral modulus && modulus.value >= stride.value
+                    && (long) modulus.value + stride.value <= Integer.MAX_VALUE){
+                return counters.computeIfAbsent(modulus.value, k -> newVariable(Opcode.TYPE_INT, new IntLiteral(start.value % k, loop.line), hoisted));
+            }
+            return null;
+        };
+        Block body = (Block) rewrite(loop.body, replace);
+        if(counters.isEmpty()){
+            return loop;
+        }
+
+        List<Statement> steps = new ArrayList<>();
+        steps.add(adjustment);
+        for(Map.Entry<Integer, Variable> counter : counters.entrySet()){
+            Variable variable = counter.getValue();
+            IntLiteral modulus = new IntLiteral(counter.getKey(), loop.line);
+            steps.add(assign(variable, new BinaryOperation(Operator.ADD, variable, stride, loop.line)));
+            Block wrap = new Block(List.of(assign(variable, new BinaryOperation(Operator.SUBTRACT, variable, modulus, loop.line))), loop.line);
+            steps.add(new IfStatement(List.of(new BinaryOperation(Operator.GREATER_OR_EQUAL, variable, modulus, loop.line)), List.of(wrap), null, loop.line));
+        }
+        return new ForLoop(initializer, loop.condition, new Block(steps, loop.line), body, loop.line);
+    }
+
+    // Declares a variable in a new slot holding value, in front of the loop.
+    private Variable newVariable(int type, Expression value, List<Statement> hoisted){
+        int slot = slotTypes.length;
+        slotTypes = Arrays.copyOf(slotTypes, slot + 1);
+        liveDeclarations = Arrays.copyOf(liveDeclarations, slot + 1);
+        slotTypes[slot] = type;
+        Keyword keyword = type == Opcode.TYPE_INT ? Keyword.INT : type == Opcode.TYPE_BOOL ? Keyword.BOOL : Keyword.STRING;
+        Declaration declaration = new Declaration(Identifier.of(keyword.lexeme), loopVariable, value, value.line);
+        declaration.slot = slot;
+        hoisted.add(declaration);
+        Variable variable = new Variable(loopVariable, value.line);
+        variable.slot = slot;
+        return variable;
+    }
+
+    private static Assignment assign(Variable variable, Expression value){
+        Assignment assignment = new Assignment(variable.name, value, value.line);
+        assignment.slot = variable.slot;
+        return assignment;
+    }
+
+    private static boolean isVariable(Expression expression, int slot){
+        return expression instanceof Variable variable && variable.slot == slot;
+    }
+
+    private static boolean isInvariant(Expression expression, Set<Integer> written){
+        if(expression instanceof Variable variable){
+            return !written.contains(variable.slot);
+        }else if(expression instanceof BinaryOperation binaryOperation){
+            return isInvariant(binaryOperation.left, written) && isInvariant(binaryOperation.right, written);
+        }else if(expression instanceof UnaryOperation unaryOperation){
+            return isInvariant(unaryOperation.operand, written);
+        }else if(expression instanceof ArrayLength arrayLength){
+            return isInvariant(arrayLength.array, written);
+        }else if(expression instanceof Call || expression instanceof NewArray || expression instanceof ElementAccess){
+            // A new array is a different one every time, and elements can be assigned.
+            return false;
+        }
+        return true;
+    }
+
+    // Every slot the statement declares or assigns, at any depth. Assigning an element leaves the
+    // variable holding the same array.
+    private static void writes(Statement statement, Set<Integer> written){
+        if(statement instanceof Declaration declaration){
+            written.add(declaration.slot);
+        }else if(statement instanceof Assignment assignment){
+            written.add(assignment.slot);
+        }else if(statement instanceof Block block){
+            for(Statement child : block.statements){
+                writes(child, written);
+            }
+        }else if(statement instanceof IfStatement ifStatement){
+            for(Block branch : ifStatement.branches){
+                writes(branch, written);
+            }
+            if(ifStatement.elseBranch != null){
+                writes(ifStatement.elseBranch, written);
+            }
+        }else if(statement instanceof WhileLoop whileLoop){
+            writes(whileLoop.body, written);
+        }else if(statement instanceof ForLoop forLoop){
+            writes(forLoop.initializer, written);
+            writes(forLoop.body, written);
+            writes(forLoop.adjustment, written);
+        }
+    }
+
+    // Rebuilds the statement with each expression in it passed to replace, outermost first; where
+    // replace returns null the expression's operands are tried instead.
+    private static Statement rewrite(Statement statement, Function<Expression, Expression> replace){
+        if(statement instanceof Declaration declaration){
+            Declaration rewritten = new Declaration(declaration.type, declaration.name, rewrite(declaration.value, replace), declaration.line);
+            rewritten.slot = declaration.slot;
+            return rewritten;
+        }else if(statement instanceof Assignment assignment){
+            Assignment rewritten = new Assignment(assignment.name, rewrite(assignment.value, replace), assignment.line);
+            rewritten.slot = assignment.slot;
+            return rewritten;
+        }else if(statement instanceof ElementAssignment elementAssignment){
+            return new ElementAssignment((ElementAccess) rewrite(elementAssignment.target, replace), rewrite(elementAssignment.value, replace), elementAssignment.line);
+        }else if(statement instanceof MethodCall methodCall){
+            return new MethodCall(methodCall.method, rewrite(methodCall.argument, replace), methodCall.line);
+        }else if(statement instanceof CallStatement callStatement){
+            List<Expression> arguments = new ArrayList<>();
+            for(Expression argument : callStatement.call.arguments){
+                arguments.add(rewrite(argument, replace));
+            }
+            return new CallStatement(withArguments(callStatement.call, arguments), callStatement.line);
+        }else if(statement instanceof Return returnStatement){
+            return new Return(rewrite(returnStatement.value, replace), returnStatement.line);
+        }else if(statement instanceof Block block){
+            List<Statement> statements = new ArrayList<>();
+            for(Statement child : block.statements){
+                statements.add(rewrite(child, replace));
+            }
+            return new Block(statements, block.line);
+        }else if(statement instanceof IfStatement ifStatement){
+            List<Expression> conditions = new ArrayList<>();
+            List<Block> branches = new ArrayList<>();
+            for(int i = 0; i < ifStatement.conditions.size(); i++){
+                conditions.add(rewrite(ifStatement.conditions.get(i), replace));
+                branches.add((Block) rewrite(ifStatement.branches.get(i), replace));
+            }
+            Block elseBranch = ifStatement.elseBranch == null ? null : (Block) rewrite(ifStatement.elseBranch, replace);
+            return new IfStatement(conditions, branches, elseBranch, ifStatement.line);
+        }else if(statement instanceof WhileLoop whileLoop){
+            return new WhileLoop(rewrite(whileLoop.condition, replace), (Block) rewrite(whileLoop.body, replace), whileLoop.line);
+        }else if(statement instanceof ForLoop forLoop){
+            return new ForLoop(rewrite(forLoop.initializer, replace), rewrite(forLoop.condition, replace),
+                    rewrite(forLoop.adjustment, replace), (Block) rewrite(forLoop.body, replace), forLoop.line);
+        }
+        return statement;
+    }
+
+    private static Expression rewrite(Expression expression, Function<Expression, Expression> replace){
+        Expression replacement = replace.apply(expression);
+        if(replacement != null){
+            return replacement;
+        }
+        if(expression instanceof BinaryOperation binaryOperation){
+            return new BinaryOperation(binaryOperation.operator, rewrite(binaryOperation.left, replace), rewrite(binaryOperation.right, replace), binaryOperation.line);
+        }else if(expression instanceof UnaryOperation unaryOperation){
+            return new UnaryOperation(unaryOperation.operator, rewrite(unaryOperation.operand, replace), unaryOperation.line);
+        }else if(expression instanceof NewArray newArray){
+            return newArray(newArray, rewrite(newArray.length, replace));
+        }else if(expression instanceof ArrayLength arrayLength){
+            return new ArrayLength(rewrite(arrayLength.array, replace), arrayLength.line);
+        }else if(expression instanceof ElementAccess elementAccess){
+            return elementAccess(elementAccess, rewrite(elementAccess.array, replace), rewrite(elementAccess.index, replace));
+        }else if(expression instanceof Call call){
+            List<Expression> arguments = new ArrayList<>();
+            for(Expression argument : call.arguments){
+                arguments.add(rewrite(argument, replace));
+            }
+            return withArguments(call, arguments);
+        }
+        return expression;
+    }
+
+    private void markReads(Statement statement){
+        if(statement instanceof Declaration declaration){
+            markReads(declaration.value);
+            liveDeclarations[declaration.slot] = declaration;
+        }else if(statement instanceof Assignment assignment){
+            markReads(assignment.value);
+        }else if(statement instanceof ElementAssignment elementAssignment){
+            markReads(elementAssignment.target);
+            markReads(elementAssignment.value);
+        }else if(statement instanceof MethodCall methodCall){
+            markReads(methodCall.argument);
+        }else if(statement instanceof CallStatement callStatement){
+            markReads(callStatement.call);
+        }else if(statement instanceof Return returnStatement){
+            markReads(returnStatement.value);
+        }else if(statement instanceof Block block){
+            for(Statement child : block.statements){
+                markReads(child);
+            }
+        }else if(statement instanceof IfStatement ifStatement){
+            for(int i = 0; i < ifStatement.conditions.size(); i++){
+                markReads(ifStatement.conditions.get(i));
+                markReads(ifStatement.branches.get(i));
+            }
+            if(ifStatement.elseBranch != null){
+                markReads(ifStatement.elseBranch);
+            }
+        }else if(statement instanceof WhileLoop whileLoop){
+            markReads(whileLoop.condition);
+            markReads(whileLoop.body);
+        }else if(statement instanceof ForLoop forLoop){
+            markReads(forLoop.initializer);
+            markReads(forLoop.condition);
+            markReads(forLoop.body);
+            markReads(forLoop.adjustment);
+        }
+    }
+
+    private void markReads(Expression expression){
+        if(expression instanceof Variable variable){
+            readDeclarations.add(liveDeclarations[variable.slot]);
+        }else if(expression instanceof BinaryOperation binaryOperation){
+            markReads(binaryOperation.left);
+            markReads(binaryOperation.right);
+        }else if(expression instanceof UnaryOperation unaryOperation){
+            markReads(unaryOperation.operand);
+        }else if(expression instanceof NewArray newArray){
+            markReads(newArray.length);
+        }else if(expression instanceof ArrayLength arrayLength){
+            markReads(arrayLength.array);
+        }else if(expression instanceof ElementAccess elementAccess){
+            markReads(elementAccess.array);
+            markReads(elementAccess.index);
+        }else if(expression instanceof Call call){
+            for(Expression argument : call.arguments){
+                markReads(argument);
+            }
+        }
+    }
+
+    // Replays the declarations in order so every assignment can be matched with the declaration
+    // its slot belongs to at that point. For loop headers are kept as they are.
+    private Block removeDeadStores(Block block) throws Exception {
+        List<Statement> statements = new ArrayList<>();
+        for(Statement statement : block.statements){
+            if(statement instanceof Declaration declaration){
+                liveDeclarations[declaration.slot] = declaration;
+                slotTypes[declaration.slot] = Compiler.type(declaration.type);
+                if(isDead(declaration, declaration.value)){
+                    continue;
+                }
+            }else if(statement instanceof Assignment assignment){
+                if(isDead(liveDeclarations[assignment.slot], assignment.value)){
+                    continue;
+                }
+            }
+            statements.add(removeDeadStores(statement));
+        }
+        return new Block(statements, block.line);
+    }
+
+    private Statement removeDeadStores(Statement statement) throws Exception {
+        if(statement instanceof Block block){
+            return removeDeadStores(block);
+        }else if(statement instanceof IfStatement ifStatement){
+            List<Block> branches = new ArrayList<>();
+            for(Block branch : ifStatement.branches){
+                branches.add(removeDeadStores(branch));
+            }
+            Block elseBranch = ifStatement.elseBranch == null ? null : removeDeadStores(ifStatement.elseBranch);
+            return new IfStatement(ifStatement.conditions, branches, elseBranch, ifStatement.line);
+        }else if(statement instanceof WhileLoop whileLoop){
+            return new WhileLoop(whileLoop.condition, removeDeadStores(whileLoop.body), whileLoop.line);
+        }else if(statement instanceof ForLoop forLoop){
+            if(forLoop.initializer instanceof Declaration declaration){
+                liveDeclarations[declaration.slot] = declaration;
+                slotTypes[declaration.slot] = Compiler.type(declaration.type);
+            }
+            return new ForLoop(forLoop.initializer, forLoop.condition, forLoop.adjustment, removeDeadStores(forLoop.body), forLoop.line);
+        }
+        return statement;
+    }
+
+    // A store is dead when nothing reads the variable and the stored value can neither fail nor
+    // trip the VM's type check. Stores to globals (no declaration) are always kept.
+    private boolean isDead(Declaration declaration, Expression value) throws Exception {
+        return declaration != null && !readDeclarations.contains(declaration) && isSafe(value) && type(value) == Compiler.type(declaration.type);
+    }
+
+    // Calls can print, or fail, or never return; allocating fails on a negative length and indexing
+    // out of range.
+    private boolean isSafe(Expression expression){
+        if(type(expression) == UNKNOWN || expression instanceof Call || expression instanceof NewArray || expression instanceof ElementAccess){
+            return false;
+        }
+        if(expression instanceof BinaryOperation binaryOperation){
+            boolean divides = binaryOperation.operator == Operator.DIVIDE || binaryOperation.operator == Operator.MODULO;
+            if(divides && !(binaryOperation.right instanceof IntLiteral literal && literal.value != 0)){
+                return false;
+            }
+            return isSafe(binaryOperation.left) && isSafe(binaryOperation.right);
+        }else if(expression instanceof UnaryOperation unaryOperation){
+            return isSafe(unaryOperation.operand);
+        }else if(expression instanceof ArrayLength arrayLength){
+            return isSafe(arrayLength.array);
+        }
+        return true;
+    }
+
+    // The type an expression is guaranteed to have if it evaluates, or UNKNOWN if it could hit a
+    // type error.
+    private int type(Expression expression){
+        if(expression instanceof IntLiteral){
+            return Opcode.TYPE_INT;
+        }else if(expression instanceof StringLiteral){
+            return Opcode.TYPE_STRING;
+        }else if(expression instanceof BoolLiteral){
+            return Opcode.TYPE_BOOL;
+        }else if(expression instanceof Variable variable){
+            return slotTypes[variable.slot];
+        }else if(expression instanceof Call call){
+            return call.function.resultType;
+        }else if(expression instanceof NewArray newArray){
+            return type(newArray.length) == Opcode.TYPE_INT ? Opcode.arrayType(newArray.elementType) : UNKNOWN;
+        }else if(expression instanceof ArrayLength arrayLength){
+            return Opcode.isArray(type(arrayLength.array)) ? Opcode.TYPE_INT : UNKNOWN;
+        }else if(expression instanceof ElementAccess elementAccess){
+            int array = type(elementAccess.array);
+            return Opcode.isArray(array) && type(elementAccess.index) == Opcode.TYPE_INT ? Opcode.elementType(array) : UNKNOWN;
+        }else if(expression instanceof UnaryOperation unaryOperation){
+            return type(unaryOperation.operand) == Opcode.TYPE_BOOL ? Opcode.TYPE_BOOL : UNKNOWN;
+        }else if(expression instanceof BinaryOperation binaryOperation){
+            int left = type(binaryOperation.left);
+            int right = type(binaryOperation.right);
+            switch(binaryOperation.operator){
+                case ADD, SUBTRACT, MULTIPLY, DIVIDE, MODULO:
+                    return left == Opcode.TYPE_INT && right == Opcode.TYPE_INT ? Opcode.TYPE_INT : UNKNOWN;
+                case LESS, LESS_OR_EQUAL, GREATER, GREATER_OR_EQUAL:
+                    return left == Opcode.TYPE_INT && right == Opcode.TYPE_INT ? Opcode.TYPE_BOOL : UNKNOWN;
+                case AND, OR:
+                    return left == Opcode.TYPE_BOOL && right == Opcode.TYPE_BOOL ? Opcode.TYPE_BOOL : UNKNOWN;
+                case EQUAL, NOT_EQUAL:
+                    return left != UNKNOWN && right != UNKNOWN ? Opcode.TYPE_BOOL : UNKNOWN;
+                default:
+                    return UNKNOWN;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    private static boolean isLiteral(Expression expression){
+        return expression instanceof IntLiteral || expression instanceof BoolLiteral || expression instanceof StringLiteral;
+    }
+}
@@ -0,0 +1,30 @@
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Where print writes. Each call prints one value followed by a line break; nothing is guaranteed
+// to be visible until flush().
+public interface Output extends AutoCloseable {
+    void println(int value) throws IOException;
+    void println(boolean value) throws IOException;
+    void println(String value) throws IOException;
+    void flush() throws IOException;
+
+    @Override
+    default void close() throws IOException {
+        flush();
+    }
+
+    // Closing it flushes but leaves the process's stdout open.
+    static Output stdout(){
+        return new ChannelOutput(Channels.newChannel(new FileOutputStream(FileDescriptor.out)), false);
+    }
+
+    static Output file(Path path) throws IOException {
+        return new ChannelOutput(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), true);
+    }
+}
@@ -1,512 +1,567 @@
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Stack;
 
 public class Parser {
-    private final LexicalAnalyzer lexicalAnalyzer;
-    private final ScopeList<Object> varMap;
-    private final ScopeList<IdentifierType> reservedIdentifiers;
-
-    public Parser(ArrayList<String> program) throws Exception {
-        this.lexicalAnalyzer = new LexicalAnalyzer(program);
-        this.varMap = new ScopeList<>();
-        varMap.lockInitialScope();
-        varMap.increaseScope();
-
-        this.reservedIdentifiers = new ScopeList<>();
-        reservedIdentifiers.put(new Identifier("print"), IdentifierType.METHOD);
-        reservedIdentifiers.put(new Identifier("int"), IdentifierType.TYPE_DECLARATION);
-        reservedIdentifiers.put(new Identifier("string"), IdentifierType.TYPE_DECLARATION);
-        reservedIdentifiers.put(new Identifier("bool"), IdentifierType.TYPE_DECLARATION);
-        reservedIdentifiers.put(new Identifier("if"), IdentifierType.IF);
-        reservedIdentifiers.put(new Identifier("elif"), IdentifierType.ELIF);
-        reservedIdentifiers.put(new Identifier("else"), IdentifierType.ELSE);
-        reservedIdentifiers.put(new Identifier("for"), IdentifierType.FOR);
-        reservedIdentifiers.put(new Identifier("while"), IdentifierType.WHILE);
-        reservedIdentifiers.put(new Identifier("true"), IdentifierType.BOOLEAN);
-        reservedIdentifiers.put(new Identifier("false"), IdentifierType.BOOLEAN);
-        reservedIdentifiers.lockInitialScope();
-        reservedIdentifiers.increaseScope();
+    private final Tokens tokens;
+    private int position;
+
+    public Parser(Source source) throws Exception {
+        this.tokens = new LexicalAnalyzer(source).tokenize();
+        this.position = 0;
     }
 
-    public void run() throws Exception {
-        lexicalAnalyzer.lex();
-        while(!lexicalAnalyzer.isEmpty()){
-            statements();
+    public Block parse() throws Exception {
+        List<Statement> program = new ArrayList<>();
+        while(!isEmpty()){
+            program.add(statements());
         }
+        return new Block(program, 0);
     }
 
-    private void statements() throws Exception {
-        CharClass tokenType = lexicalAnalyzer.getTokenType();
+    private Statement statements() throws Exception {
+        CharClass tokenType = tokens.kind(position);
 
         if(tokenType != CharClass.IDENTIFIER){
-            throw new Exception("Invalid statement on line " + lexicalAnalyzer.getLineIndex());
+            throw new Exception("Invalid statement on line " + line());
         }
 
         Identifier identifier = identifier();
-        IdentifierType identifierType = reservedIdentifiers.get(identifier);
+        IdentifierType identifierType = identifierType(identifier);
 
         if(identifierType.isConditional()){
-            conditional(identifier);
-            return;
+            return conditional(identifier);
+        }
+
+        if(identifierType == IdentifierType.TYPE_DECLARATION && tokens.is(position + (isArrayType() ? 3 : 1), '(')){
+            return function(arrayType(identifier));
         }
 
         if(identifierType.isStatement()){
-            statement(identifier);
-            String lexeme = lexicalAnalyzer.getLexeme().strip();
+            Statement statement = statement(identifier);
 
-            if(!lexeme.equals(";")){
-                throw new Exception("Missing semicolon on line " + lexicalAnalyzer.getLineIndex());
+            if(!tokens.is(position, ';')){
+                throw new Exception("Missing semicolon on line " + line());
             }
 
-            lexicalAnalyzer.lex();
-            return;
+            position++;
+            return statement;
         }
 
-        throw new Exception("Unknown identifier on line " + lexicalAnalyzer.getLineIndex());
+        throw new Exception("Unknown identifier on line " + line());
     }
 
-    private void statement(Identifier identifier) throws Exception{
-        IdentifierType identifierType = reservedIdentifiers.get(identifier);
+    private Statement statement(Identifier identifier) throws Exception{
+        IdentifierType identifierType = identifierType(identifier);
 
         if(identifierType == IdentifierType.METHOD){
-            methodCall(identifier);
+            return methodCall(identifier);
         }else if(identifierType == IdentifierType.TYPE_DECLARATION){
-            declareVar(identifier);
+            return declareVar(arrayType(identifier));
+        }else if(identifierType == IdentifierType.VAR && tokens.is(position, '(')){
+            Call call = call(identifier);
+            return new CallStatement(call, call.line);
+        }else if(identifierType == IdentifierType.VAR && tokens.is(position, '[')){
+            return assignElement(identifier);
         }else if(identifierType == IdentifierType.VAR){
-            assignVar(identifier);
+            return assignVar(identifier);
+        }else if(identifierType == IdentifierType.RETURN){
+            int line = line();
+            return new Return(expression(), line);
         }
+        throw new Exception("Invalid statement on line " + line());
     }
 
-    private void conditional(Identifier identifier) throws Exception{
-        IdentifierType identifierType = reservedIdentifiers.get(identifier);
+    private Statement conditional(Identifier identifier) throws Exception{
+        IdentifierType identifierType = identifierType(identifier);
         if(identifierType == IdentifierType.IF){
-            ifStatement();
+            return ifStatement();
         }else if(identifierType == IdentifierType.WHILE){
-            whileLoop();
-        }else if(identifierType == IdentifierType.FOR){
-            forLoop();
+            return whileLoop();
         }
+        return forLoop();
     }
 
-    private String str() throws Exception{
-        StringBuilder lexeme = new StringBuilder();
-        lexicalAnalyzer.lex();
-        String lex = lexicalAnalyzer.getLexeme();
+    // Whether [] follows, making the type just consumed an array type.
+    private boolean isArrayType(){
+        return tokens.is(position, '[') && tokens.is(position + 1, ']');
+    }
 
-        while(lex.charAt(lex.length() - 1) != '"'){
-            lexeme.append(lex);
-            lexicalAnalyzer.lex();
-            lex = lexicalAnalyzer.getLexeme();
+    private Identifier arrayType(Identifier type){
+        if(!isArrayType()){
+            return type;
         }
+        position += 2;
+        // Only the array keywords are spelled this way; anything else fails as a type.
+        Identifier array = type.keyword != null ? Symbols.find(type + "[]") : null;
+        return array != null ? array : Symbols.uninterned(type + "[]");
+    }
 
-        if(lex.length() > 1){
-            lexeme.append(lex, 0, lex.length() - 1);
-        }
+    // Anything that is not a keyword names a variable; the Resolver checks that it exists.
+    private IdentifierType identifierType(Identifier identifier){
+        return identifier.keyword != null ? identifier.keyword.type : IdentifierType.VAR;
+    }
 
-        lexicalAnalyzer.lex();
-        return lexeme.toString();
+    private String str(){
+        String value = tokens.stringValue(position);
+        position++;
+        return value;
     }
 
-    private Object expression() throws Exception{
-        Stack<String> operatorStack = new Stack<>();
-        Stack<Object> outputStack = new Stack<>();
+    private Expression expression() throws Exception{
+        // null marks an open parenthesis
+        Stack<Operator> operatorStack = new Stack<>();
+        Stack<Expression> outputStack = new Stack<>();
         int parenthesesInStack = 0;
 
-        //Shunting yard algorithm
+        //Shunting yard algorithm, building the tree instead of evaluating it
         while(true){
-            String lexeme = lexicalAnalyzer.getLexeme().strip();
-            CharClass tokenType = lexicalAnalyzer.getTokenType();
+            CharClass tokenType = tokens.kind(position);
             if(tokenType.isTerm()){
                 outputStack.push(term());
                 continue;
             }
 
-            if(lexeme.equals("(")){
+            if(tokens.is(position, '(')){
                 parenthesesInStack++;
-                operatorStack.push(lexeme);
-                lexicalAnalyzer.lex();
+                operatorStack.push(null);
+                position++;
                 continue;
             }
 
             if(tokenType.isOperator()){
-                int precedence = OperatorEvaluationMap.map.get(lexeme).precedence();
-                while(!operatorStack.isEmpty() && !operatorStack.peek().equals("(") && precedence < OperatorEvaluationMap.map.get(operatorStack.peek()).precedence()) {
-                    outputStack.push(OperatorEvaluationMap.map.get(operatorStack.pop()).evaluate(outputStack, lexicalAnalyzer.getLineIndex()));
+                Operator operator = operator();
+                while(!operatorStack.isEmpty() && operatorStack.peek() != null && operator.yieldsTo(operatorStack.peek())) {
+                    outputStack.push(reduce(operatorStack.pop(), outputStack));
                 }
 
-                lexicalAnalyzer.lex();
-                operatorStack.push(lexeme);
+                position++;
+                operatorStack.push(operator);
                 continue;
             }
 
-            if(lexeme.equals(")")){
+            if(tokens.is(position, ')')){
 
                 if(parenthesesInStack == 0){
                     break;
                 }
-                if(operatorStack.peek().equals("(")){
-                    throw new Exception("Empty sub expression on line " + lexicalAnalyzer.getLineIndex());
+                if(operatorStack.peek() == null){
+                    throw new Exception("Empty sub expression on line " + line());
                 }
-                while(!operatorStack.peek().equals("(")){
-                    outputStack.push(OperatorEvaluationMap.map.get(operatorStack.pop()).evaluate(outputStack, lexicalAnalyzer.getLineIndex()));
+                while(operatorStack.peek() != null){
+                    outputStack.push(reduce(operatorStack.pop(), outputStack));
                 }
                 parenthesesInStack--;
                 operatorStack.pop();
-                lexicalAnalyzer.lex();
+                position++;
                 continue;
             }
             break;
         }
 
         while(!operatorStack.isEmpty()){
-            String operator = operatorStack.pop();
-            if(operator.equals("(")){
-                throw new Exception("Improper expression on line " + lexicalAnalyzer.getLineIndex());
+            Operator operator = operatorStack.pop();
+            if(operator == null){
+                throw new Exception("Improper expression on line " + line());
             }
-            outputStack.push(OperatorEvaluationMap.map.get(operator).evaluate(outputStack, lexicalAnalyzer.getLineIndex()));
+            outputStack.push(reduce(operator, outputStack));
         }
 
         if(outputStack.size() != 1){
-            throw new Exception("Improper expression on line " + lexicalAnalyzer.getLineIndex());
+            throw new Exception("Improper expression on line " + line());
         }
 
         return outputStack.pop();
     }
 
-    private Object term() throws Exception{
-        CharClass tokenType = lexicalAnalyzer.getTokenType();
-        Object resolvedTerm;
+    private Operator operator() throws Exception{
+        Operator operator = tokens.operator(position);
+        if(operator == null){
+            throw new Exception("Unknown operator " + tokens.lexeme(position) + " on line " + line());
+        }
+        return operator;
+    }
+
+    private Expression reduce(Operator operator, Stack<Expression> outputStack) throws Exception{
+        int line = line();
+        if(operator.arity == 1){
+            if(outputStack.isEmpty()){
+                throw new Exception("Improper expression on line " + line);
+            }
+            return new UnaryOperation(operator, outputStack.pop(), line);
+        }
+        if(outputStack.size() < 2){
+            throw new Exception("Improper expression on line " + line);
+        }
+        Expression right = outputStack.pop();
+        Expression left = outputStack.pop();
+        return new BinaryOperation(operator, left, right, line);
+    }
+
+    private Expression term() throws Exception{
+        CharClass tokenType = tokens.kind(position);
+        int line = line();
+        Expression resolvedTerm;
 
         if(tokenType == CharClass.DOUBLE_QUOTE){
-            resolvedTerm = str();
+            resolvedTerm = new StringLiteral(str(), line);
         }else if(tokenType == CharClass.IDENTIFIER){
             Identifier identifier = identifier();
-            if(!reservedIdentifiers.containsKey(identifier)){
-                throw new Exception("Unknown identifier on line " + lexicalAnalyzer.getLineIndex());
-            }
-            IdentifierType identifierType = reservedIdentifiers.get(identifier);
-            if(identifierType == IdentifierType.VAR){
-                resolvedTerm = varMap.get(identifier);
+            IdentifierType identifierType = identifierType(identifier);
+            if(identifierType == IdentifierType.VAR && tokens.is(position, '(')){
+                resolvedTerm = call(identifier);
+            }else if(identifierType == IdentifierType.VAR){
+                resolvedTerm = new Variable(identifier, line);
+            }else if(identifierType == IdentifierType.NEW){
+                resolvedTerm = newArray();
+            }else if(identifierType == IdentifierType.LENGTH){
+                resolvedTerm = arrayLength();
             }else if(identifierType == IdentifierType.BOOLEAN){
-                resolvedTerm = bool(identifier);
+                resolvedTerm = new BoolLiteral(bool(identifier), line);
             }else if(identifierType == IdentifierType.METHOD){
-                throw new Exception("Methods as expression arguments not yet implemented on line " + lexicalAnalyzer.getLineIndex());
+                throw new Exception("Methods as expression arguments not yet implemented on line " + line());
             }else{
-                throw new Exception("Invalid identifier in expression on line " + lexicalAnalyzer.getLineIndex());
+                throw new Exception("Invalid identifier in expression on line " + line());
             }
 
         }else if(tokenType == CharClass.DIGIT){
-            resolvedTerm = intLiteral();
+            resolvedTerm = new IntLiteral(intLiteral(), line);
         }else{
-            throw new Exception("Attempted to parse unimplemented expression on line " + lexicalAnalyzer.getLineIndex());
+            throw new Exception("Attempted to parse unimplemented expression on line " + line());
+        }
+        if((resolvedTerm instanceof Variable || resolvedTerm instanceof Call) && tokens.is(position, '[')){
+            resolvedTerm = new ElementAccess(resolvedTerm, index(), line);
         }
         return resolvedTerm;
     }
 
+    // [expression], returning the expression.
+    private Expression index() throws Exception {
+        int close = tokens.match(position);
+        if(close < 0){
+            throw new Exception("Improper array index on line " + line());
+        }
+        position++;
+        Expression index = expression();
+        if(position != close){
+            throw new Exception("Improper array index on line " + line());
+        }
+        position++;
+        return index;
+    }
+
+    // new type[length], with new already consumed.
+    private Expression newArray() throws Exception {
+        int line = line();
+        Identifier type = identifier();
+        if(type.keyword == null || type.keyword.type != IdentifierType.TYPE_DECLARATION || !tokens.is(position, '[')){
+            throw new Exception("Improper array allocation on line " + line);
+        }
+        return new NewArray(type, index(), line);
+    }
+
+    // len(array), with len already consumed.
+    private Expression arrayLength() throws Exception {
+        int line = line();
+        int close = tokens.match(position);
+        if(!tokens.is(position, '(') || close < 0){
+            throw new Exception("Invalid len call on line " + line);
+        }
+        position++;
+        Expression array = expression();
+        if(position != close){
+            throw new Exception("Invalid len call on line " + line());
+        }
+        position++;
+        return new ArrayLength(array, line);
+    }
+
     private Integer intLiteral() throws Exception{
-        CharClass tokenType = lexicalAnalyzer.getTokenType();
-        String lexeme = lexicalAnalyzer.getLexeme().strip();
+        CharClass tokenType = tokens.kind(position);
+        String lexeme = tokens.lexeme(position);
 
         if(tokenType != CharClass.DIGIT){
-            throw new Exception("Fake integer on line " + lexicalAnalyzer.getLineIndex());
+            throw new Exception("Fake integer on line " + line());
         }
 
-        lexicalAnalyzer.lex();
+        position++;
 
         return Integer.parseInt(lexeme);
     }
 
     private Identifier identifier() throws Exception{
-        Identifier identifier = new Identifier(lexicalAnalyzer.getLexeme().strip());
-        lexicalAnalyzer.lex();
+        Identifier identifier = tokens.identifier(position);
+        if(identifier == null){
+            // Not a name at all; it fails as one wherever a name was expected.
+            identifier = Symbols.uninterned(tokens.lexeme(position));
+        }
+        position++;
 
         return identifier;
     }
 
     private Boolean bool(Identifier identifier) throws Exception{
-        if(identifier.equals("true")){
+        if(identifier.keyword == Keyword.TRUE){
             return true;
-        }else if(identifier.equals("false")){
+        }else if(identifier.keyword == Keyword.FALSE){
             return false;
         }
-        throw new Exception("Tried to initialize invalid boolean on line " + lexicalAnalyzer.getLineIndex());
+        throw new Exception("Tried to initialize invalid boolean on line " + line());
     }
 
-    private void methodCall(Identifier identifier) throws Exception{ //TODO: Generalize
-        String lexeme = lexicalAnalyzer.getLexeme().strip();
-
-        if(!lexeme.equals("(")){
-            throw new Exception("Invalid method call on line " + lexicalAnalyzer.getLineIndex());
+    private Statement methodCall(Identifier identifier) throws Exception{ //TODO: Generalize
+        int line = line();
+        if(!tokens.is(position, '(')){
+            throw new Exception("Invalid method call on line " + line());
         }
 
-        lexicalAnalyzer.lex();
+        position++;
 
-        Object o = expression();
+        Expression argument = expression();
 
-        lexeme = lexicalAnalyzer.getLexeme().strip();
-        if(!lexeme.equals(")")){
-            throw new Exception("Invalid method call on line " + lexicalAnalyzer.getLineIndex());
+        if(!tokens.is(position, ')')){
+            throw new Exception("Invalid method call on line " + line());
         }
-        lexicalAnalyzer.lex();
-        System.out.println(o.toString());
+        position++;
+        return new MethodCall(identifier, argument, line);
     }
 
-    private void declareVar(Identifier type) throws Exception {
-        if(lexicalAnalyzer.getTokenType() != CharClass.IDENTIFIER){
-            throw new Exception("Improper variable initialization on line " + lexicalAnalyzer.getLineIndex());
+    // name(argument, ...), with the name already consumed.
+    private Call call(Identifier name) throws Exception {
+        int line = line();
+        int close = tokens.match(position);
+        if(close < 0){
+            throw new Exception("Invalid function call on line " + line);
+        }
+        position++;
+        List<Expression> arguments = new ArrayList<>();
+        while(position < close){
+            arguments.add(expression());
+            if(position < close && !tokens.is(position, ',')){
+                throw new Exception("Invalid function call on line " + line());
+            }
+            if(tokens.is(position, ',')){
+                position++;
+                if(position == close){
+                    throw new Exception("Invalid function call on line " + line());
+                }
+            }
         }
-        Identifier name = identifier();
+        if(position != close){
+            throw new Exception("Invalid function call on line " + line());
+        }
+        position++;
+        return new Call(name, arguments, line);
+    }
 
-        if(reservedIdentifiers.containsKey(name)){
-            throw new Exception("Tried to create variable from reserved identifier on line " + lexicalAnalyzer.getLineIndex());
+    // type name(type parameter, ...){ statements }, with the type already consumed.
+    private Statement function(Identifier returnType) throws Exception {
+        int line = line();
+        Identifier name = identifier();
+        if(name.keyword != null){
+            throw new Exception("Tried to create function from reserved identifier on line " + line);
+        }
+        int close = tokens.match(position);
+        if(close < 0){
+            throw new Exception("Improper function declaration on line " + line);
+        }
+        position++;
+        List<Declaration> parameters = new ArrayList<>();
+        while(position < close){
+            Identifier type = identifier();
+            if(type.keyword == null || type.keyword.type != IdentifierType.TYPE_DECLARATION){
+                throw new Exception("Improper function declaration on line " + line());
+            }
+            type = arrayType(type);
+            if(tokens.kind(position) != CharClass.IDENTIFIER){
+                throw new Exception("Improper function declaration on line " + line());
+            }
+            int parameterLine = line();
+            Identifier parameter = identifier();
+            if(parameter.keyword != null){
+                throw new Exception("Tried to create variable from reserved identifier on line " + parameterLine);
+            }
+            parameters.add(new Declaration(type, parameter, null, parameterLine));
+            if(tokens.is(position, ',') && position + 1 < close){
+                position++;
+            }else if(position != close){
+                throw new Exception("Improper function declaration on line " + line());
+            }
         }
+        position++;
+        return new FunctionDeclaration(returnType, name, parameters, scope(), line);
+    }
 
-        if(!lexicalAnalyzer.getLexeme().strip().equals("=")){
-            throw new Exception("Must initialize variable on line " + lexicalAnalyzer.getLineIndex());
+    private Statement declareVar(Identifier type) throws Exception {
+        int line = line();
+        if(tokens.kind(position) != CharClass.IDENTIFIER){
+            throw new Exception("Improper variable initialization on line " + line());
         }
+        Identifier name = identifier();
 
-        lexicalAnalyzer.lex();
+        if(name.keyword != null){
+            throw new Exception("Tried to create variable from reserved identifier on line " + line());
+        }
 
-        Object var = expression();
-        if(type.equals("string") && !(var instanceof String)){
-            throw new Exception("Mismatched types on line " + lexicalAnalyzer.getLineIndex());
-        }else if(type.equals("int") && !(var instanceof Integer)){
-            throw new Exception("Mismatched types on line " + lexicalAnalyzer.getLineIndex());
-        }else if(type.equals("bool") && !(var instanceof Boolean)){
-            throw new Exception("Mismatched types on line " + lexicalAnalyzer.getLineIndex());
+        if(!tokens.is(position, '=')){
+            throw new Exception("Must initialize variable on line " + line());
         }
-        varMap.put(name, var);
-        reservedIdentifiers.put(name, IdentifierType.VAR);
+
+        position++;
+
+        Expression value = expression();
+        return new Declaration(type, name, value, line);
     }
 
-    private void assignVar(Identifier name) throws Exception{
-        String lexeme = lexicalAnalyzer.getLexeme().strip();
-        if(!lexeme.equals("=")){
-            throw new Exception("Improper variable assignment on line " + lexicalAnalyzer.getLineIndex());
+    private Statement assignVar(Identifier name) throws Exception{
+        int line = line();
+        if(!tokens.is(position, '=')){
+            throw new Exception("Improper variable assignment on line " + line());
         }
 
-        lexicalAnalyzer.lex();
-        Object var = expression();
-        if(!var.getClass().equals(varMap.get(name).getClass())){
-            throw new Exception("Mismatched types on line " + lexicalAnalyzer.getLineIndex());
-        }
+        position++;
+        return new Assignment(name, expression(), line);
+    }
 
-        varMap.put(name, var);
+    // name[index] = value, with the name already consumed.
+    private Statement assignElement(Identifier name) throws Exception {
+        int line = line();
+        ElementAccess target = new ElementAccess(new Variable(name, line), index(), line);
+        if(!tokens.is(position, '=')){
+            throw new Exception("Improper variable assignment on line " + line());
+        }
 
+        position++;
+        return new ElementAssignment(target, expression(), line);
     }
 
-    private void ifStatement() throws Exception{
-        Identifier identifier;
-        boolean ifTriggered = false;
+    private Statement ifStatement() throws Exception{
+        int line = line();
+        List<Expression> conditions = new ArrayList<>();
+        List<Block> branches = new ArrayList<>();
+        Keyword keyword;
         do{
-            if(reservedIdentifiers.containsKey(new Identifier(lexicalAnalyzer.getLexeme())) && reservedIdentifiers.get(new Identifier(lexicalAnalyzer.getLexeme())) == IdentifierType.ELIF){
-                lexicalAnalyzer.lex();
+            if(tokens.keyword(position) == Keyword.ELIF){
+                position++;
             }
 
-            if(!lexicalAnalyzer.getLexeme().strip().equals("(")){
-                throw new Exception("Improper if condition on line " + lexicalAnalyzer.getLineIndex());
+            if(!tokens.is(position, '(')){
+                throw new Exception("Improper if condition on line " + line());
             }
 
-            lexicalAnalyzer.lex();
-            Object expression = expression();
+            position++;
+            conditions.add(expression());
 
-            if(!(expression instanceof Boolean condition)){
-                throw new Exception("Improper if condition on line " + lexicalAnalyzer.getLineIndex());
+            if(!tokens.is(position, ')')){
+                throw new Exception("Improper if condition on line " + line());
             }
+            position++;
 
-            if(!lexicalAnalyzer.getLexeme().strip().equals(")")){
-                throw new Exception("Improper if condition on line " + lexicalAnalyzer.getLineIndex());
-            }
-            lexicalAnalyzer.lex();
+            branches.add(scope());
 
-            if(ifTriggered || !condition){
-                skipScope();
-            }else{
-                ifTriggered = true;
-                scope();
+            if(isEmpty()){
+                return new IfStatement(conditions, branches, null, line);
             }
 
-            if(lexicalAnalyzer.isEmpty()){
-                return;
-            }
+            keyword = tokens.keyword(position);
+        }while(keyword == Keyword.ELIF);
 
-            identifier = new Identifier(lexicalAnalyzer.getLexeme().strip());
-        }while(reservedIdentifiers.containsKey(identifier) && reservedIdentifiers.get(identifier) == IdentifierType.ELIF);
-
-        if(reservedIdentifiers.containsKey(identifier) && reservedIdentifiers.get(identifier) == IdentifierType.ELSE){
-            lexicalAnalyzer.lex();
-            if(ifTriggered){
-                skipScope();
-            }else{
-                scope();
-            }
+        Block elseBranch = null;
+        if(keyword == Keyword.ELSE){
+            position++;
+            elseBranch = scope();
         }
+        return new IfStatement(conditions, branches, elseBranch, line);
     }
 
-    private void skipScope() throws Exception {
-        if(!lexicalAnalyzer.getLexeme().strip().equals("{")){
-            throw new Exception("Improper use of skipChunk on line " + lexicalAnalyzer.getLineIndex());
-        }
-
-        Stack<Character> closers = new Stack<>();
-
-        while(true){
-            if(lexicalAnalyzer.getTokenType() == CharClass.DOUBLE_QUOTE){
-                str();
-                continue;
-            }else if(lexicalAnalyzer.getTokenType() == CharClass.OPENER){
-                closers.push(getCloser(lexicalAnalyzer.getLexeme().charAt(0)));
-            }else if(lexicalAnalyzer.getTokenType() == CharClass.CLOSER){
-                if(lexicalAnalyzer.getLexeme().strip().charAt(0) != closers.peek()){
-                    throw new Exception("Improper expression on line " + lexicalAnalyzer.getLineIndex());
-                }
-                closers.pop();
-                if(closers.isEmpty()){
-                    lexicalAnalyzer.lex();
-                    break;
-                }
-            }
-            lexicalAnalyzer.lex();
-        }
+    private boolean isEmpty(){
+        return position >= tokens.size();
     }
 
-    private char getCloser(char c) throws Exception{
-        String openers = "([{";
-        String closers = ")]}";
-        int charIndex = openers.indexOf(c);
-        if(charIndex != -1){
-            return closers.charAt(charIndex);
-        }
-        throw new Exception("Not an opener");
+    private int line(){
+        return tokens.line(position);
     }
 
-    private void scope() throws Exception{
-        varMap.increaseScope();
-        reservedIdentifiers.increaseScope();
+    private Block scope() throws Exception{
+        int line = line();
 
-        String lexeme = lexicalAnalyzer.getLexeme().strip();
-        if(!lexeme.equals("{")){
-            throw new Exception("Improper scope on line " + lexicalAnalyzer.getLineIndex());
+        if(!tokens.is(position, '{')){
+            throw new Exception("Improper scope on line " + line());
         }
-        lexicalAnalyzer.lex();
-        while(!lexicalAnalyzer.getLexeme().strip().equals("}")){
-            statements();
+        Events.ScopeParsed event = Events.recording() ? new Events.ScopeParsed() : null;
+        if(event != null){
+            event.begin();
         }
-        lexicalAnalyzer.lex();
-        varMap.decreaseScope();
-        reservedIdentifiers.decreaseScope();
-    }
-
-    private void whileLoop() throws Exception{
-        if(!lexicalAnalyzer.getLexeme().strip().equals("(")){
-            throw new Exception("Improper while condition on line " + lexicalAnalyzer.getLineIndex());
+        int close = tokens.match(position);
+        if(close < 0){
+            throw new Exception("Unclosed scope starting on line " + line);
         }
-        int lineIndex = lexicalAnalyzer.getLineIndex();
-        int charIndex = lexicalAnalyzer.getCharIndex();
-
-        lexicalAnalyzer.lex();
-        Object expression = expression();
-
-        if(!(expression instanceof Boolean)){
-            throw new Exception("Improper while condition on line " + lexicalAnalyzer.getLineIndex());
+        position++;
+        List<Statement> statements = new ArrayList<>();
+        while(position < close){
+            statements.add(statements());
         }
-
-        if(!lexicalAnalyzer.getLexeme().strip().equals(")")){
-            throw new Exception("Improper while condition on line " + lexicalAnalyzer.getLineIndex());
+        if(event != null && event.shouldCommit()){
+            event.startLine = line;
+            event.endLine = line();
+            event.statements = statements.size();
+            event.commit();
         }
-        lexicalAnalyzer.lex();
-        Boolean condition = (Boolean) expression;
+        position = close + 1;
+        return new Block(statements, line);
+    }
 
-        while(condition){
-            scope();
-            lexicalAnalyzer.goTo(lineIndex, charIndex);
-            lexicalAnalyzer.lex();
-            condition = (Boolean) expression();
-            lexicalAnalyzer.lex();
+    private Statement whileLoop() throws Exception{
+        int line = line();
+        if(!tokens.is(position, '(')){
+            throw new Exception("Improper while condition on line " + line());
         }
-        skipScope();
-    }
 
-    private void forLoop() throws Exception{
-        varMap.increaseScope();
-        reservedIdentifiers.increaseScope();
+        position++;
+        Expression condition = expression();
 
-        if(!lexicalAnalyzer.getLexeme().strip().equals("(")){
-            throw new Exception("Improper for header on line " + lexicalAnalyzer.getLineIndex());
+        if(!tokens.is(position, ')')){
+            throw new Exception("Improper while condition on line " + line());
         }
-        lexicalAnalyzer.lex();
-        statement(identifier());
+        position++;
 
-        if(!lexicalAnalyzer.getLexeme().strip().equals(";")){
-            throw new Exception("Improper for header on line " + lexicalAnalyzer.getLineIndex());
-        }
+        return new WhileLoop(condition, scope(), line);
+    }
 
-        int conditionLineIndex = lexicalAnalyzer.getLineIndex();
-        int conditionCharIndex = lexicalAnalyzer.getCharIndex();
+    private Statement forLoop() throws Exception{
+        int line = line();
 
-        lexicalAnalyzer.lex();
-        Object expression = expression();
-        if(!(expression instanceof Boolean)){
-            throw new Exception("Improper for condition on line " + lexicalAnalyzer.getLineIndex());
+        if(!tokens.is(position, '(')){
+            throw new Exception("Improper for header on line " + line());
         }
+        position++;
+        Statement initializer = statement(identifier());
 
-        if(!lexicalAnalyzer.getLexeme().strip().equals(";")){
-            throw new Exception("Improper for header on line " + lexicalAnalyzer.getLineIndex());
+        if(!tokens.is(position, ';')){
+            throw new Exception("Improper for header on line " + line());
         }
 
-        int adjustmentLineIndex = lexicalAnalyzer.getLineIndex();
-        int adjustmentCharIndex = lexicalAnalyzer.getCharIndex();
-
-        lexicalAnalyzer.lex();
+        position++;
+        Expression condition = expression();
 
-        if(lexicalAnalyzer.getTokenType() != CharClass.IDENTIFIER){
-            throw new Exception("Improper for header on line " + lexicalAnalyzer.getLineIndex());
+        if(!tokens.is(position, ';')){
+            throw new Exception("Improper for header on line " + line());
         }
 
-        skipToSingle(')');
+        position++;
 
-        int scopeStartLineIndex = lexicalAnalyzer.getLineIndex();
-        int scopeStartCharIndex = lexicalAnalyzer.getCharIndex();
-
-        lexicalAnalyzer.lex();
-
-        Boolean condition = (Boolean) expression;
-
-        while(condition){
-            scope();
-            lexicalAnalyzer.goTo(adjustmentLineIndex, adjustmentCharIndex);
-            lexicalAnalyzer.lex();
-            statement(identifier());
-            lexicalAnalyzer.goTo(conditionLineIndex, conditionCharIndex);
-            lexicalAnalyzer.lex();
-            condition = (Boolean) expression();
-            lexicalAnalyzer.goTo(scopeStartLineIndex, scopeStartCharIndex);
-            lexicalAnalyzer.lex();
+        if(tokens.kind(position) != CharClass.IDENTIFIER){
+            throw new Exception("Improper for header on line " + line());
         }
 
-        skipScope();
-        varMap.decreaseScope();
-        reservedIdentifiers.decreaseScope();
-    }
-
-    private void skipToSingle(char c) throws Exception{
-        Stack<Character> closers = new Stack<>();
+        Statement adjustment = statement(identifier());
 
-        while(true){
-            if(lexicalAnalyzer.getTokenType() == CharClass.DOUBLE_QUOTE){
-                str();
-                continue;
-            }else if(lexicalAnalyzer.getTokenType() == CharClass.OPENER){
-                closers.push(getCloser(lexicalAnalyzer.getLexeme().charAt(0)));
-            }else if(lexicalAnalyzer.getTokenType() == CharClass.CLOSER && !closers.isEmpty()){
-                if(lexicalAnalyzer.getLexeme().strip().charAt(0) != closers.peek()){
-                    throw new Exception("Improper statement on line " + lexicalAnalyzer.getLineIndex());
-                }
-                closers.pop();
-            }else if(lexicalAnalyzer.getLexeme().strip().charAt(0) == c){
-                break;
-            }
-            lexicalAnalyzer.lex();
+        if(!tokens.is(position, ')')){
+            throw new Exception("Improper for header on line " + line());
         }
+        position++;
+
+        Block body = scope();
+        return new ForLoop(initializer, condition, adjustment, body, line);
     }
 }
@@ -0,0 +1,23 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public final class PreparedScript {
+    final Program program;
+    final String name;
+    final String[] bindings;
+
+    PreparedScript(Program program, String name, String[] bindings){
+        this.program = program;
+        this.name = name;
+        this.bindings = bindings;
+    }
+
+    public String name(){
+        return name;
+    }
+
+    public List<String> bindings(){
+        return Collections.unmodifiableList(Arrays.asList(bindings));
+    }
+}
@@ -0,0 +1,158 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// What one run of a profiled Program spent its time on. A line is charged from the moment one of
+// its statements starts until the next statement (or the end of the run) starts, so a compound
+// statement's own line only covers its header. Operator time is measured around each evaluation
+// and is also part of the time of the line the operator is on. Line numbers are 0-based like the
+// ones in error messages.
+public class Profile {
+    private final Program program;
+    private final long[] lineCounts;
+    private final long[] lineNanos;
+    private final long[] operatorCounts;
+    private final long[] operatorNanos;
+    private final long[] loopIterations;
+    private int currentLine;
+    private long lineStart;
+
+    public Profile(Program program){
+        this.program = program;
+        int lineCount = 0;
+        for(int line : program.lines){
+            lineCount = Math.max(lineCount, line + 1);
+        }
+        this.lineCounts = new long[lineCount];
+        this.lineNanos = new long[lineCount];
+        this.operatorCounts = new long[Operator.operators.length];
+        this.operatorNanos = new long[Operator.operators.length];
+        this.loopIterations = new long[program.code.length];
+        this.currentLine = -1;
+    }
+
+    public static class LineStats {
+        public final int line;
+        public final long count;
+        public final long nanos;
+
+        LineStats(int line, long count, long nanos){
+            this.line = line;
+            this.count = count;
+            this.nanos = nanos;
+        }
+    }
+
+    public static class OperatorStats {
+        public final Operator operator;
+        public final long count;
+        public final long nanos;
+
+        OperatorStats(Operator operator, long count, long nanos){
+            this.operator = operator;
+            this.count = count;
+            this.nanos = nanos;
+        }
+    }
+
+    public static class LoopStats {
+        public final int line;
+        public final String construct;
+        public final long iterations;
+
+        LoopStats(int line, String construct, long iterations){
+            this.line = line;
+            this.construct = construct;
+            this.iterations = iterations;
+        }
+    }
+
+    void line(int line){
+        long now = System.nanoTime();
+        if(currentLine >= 0){
+            lineNanos[currentLine] += now - lineStart;
+        }
+        lineCounts[line]++;
+        currentLine = line;
+        lineStart = now;
+    }
+
+    void operator(Operator operator, long nanos){
+        operatorCounts[operator.ordinal()]++;
+        operatorNanos[operator.ordinal()] += nanos;
+    }
+
+    void loop(int pc){
+        loopIterations[pc]++;
+    }
+
+    void finish(){
+        if(currentLine >= 0){
+            lineNanos[currentLine] += System.nanoTime() - lineStart;
+            currentLine = -1;
+        }
+    }
+
+    // Executed lines, most time first.
+    public List<LineStats> lines(){
+        List<LineStats> lines = new ArrayList<>();
+        for(int line = 0; line < lineCounts.length; line++){
+            if(lineCounts[line] > 0){
+                lines.add(new LineStats(line, lineCounts[line], lineNanos[line]));
+            }
+        }
+        lines.sort(Comparator.comparingLong((LineStats stats) -> stats.nanos).reversed());
+        return lines;
+    }
+
+    // Evaluated operators, most time first.
+    public List<OperatorStats> operators(){
+        List<OperatorStats> operators = new ArrayList<>();
+        for(Operator operator : Operator.operators){
+            if(operatorCounts[operator.ordinal()] > 0){
+                operators.add(new OperatorStats(operator, operatorCounts[operator.ordinal()], operatorNanos[operator.ordinal()]));
+            }
+        }
+        operators.sort(Comparator.comparingLong((OperatorStats stats) -> stats.nanos).reversed());
+        return operators;
+    }
+
+    // Every loop, most iterations first; loops that never ran report zero.
+    public List<LoopStats> loops(){
+        String[] constructs = {"if", "while", "for"};
+        List<LoopStats> loops = new ArrayList<>();
+        int[] code = program.code;
+        for(int pc = 0; pc < code.length; pc += 1 + Opcode.operandCount(code[pc])){
+            if(code[pc] == Opcode.PROFILE_LOOP){
+                loops.add(new LoopStats(program.lines[pc], constructs[code[pc + 1]], loopIterations[pc]));
+            }
+        }
+        loops.sort(Comparator.comparingLong((LoopStats stats) -> stats.iterations).reversed());
+        return loops;
+    }
+
+    public String report(){
+        StringBuilder report = new StringBuilder();
+        List<LineStats> lines = lines();
+        long total = 0;
+        for(LineStats stats : lines){
+            total += stats.nanos;
+        }
+
+        report.append(String.format("%-8s %12s %12s %7s%n", "line", "count", "ms", "time"));
+        for(LineStats stats : lines){
+            report.append(String.format("%-8d %12d %12.3f %6.1f%%%n", stats.line, stats.count, stats.nanos / 1e6, total == 0 ? 0.0 : 100.0 * stats.nanos / total));
+        }
+
+        report.append(String.format("%n%-18s %12s %12s%n", "operator", "count", "ms"));
+        for(OperatorStats stats : operators()){
+            report.append(String.format("%-18s %12d %12.3f%n", stats.operator, stats.count, stats.nanos / 1e6));
+        }
+
+        report.append(String.format("%n%-8s %-8s %12s%n", "loop", "kind", "iterations"));
+        for(LoopStats stats : loops()){
+            report.append(String.format("%-8d %-8s %12d%n", stats.line, stats.construct, stats.iterations));
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,28 @@
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Immutable once compiled apart from compiledLoops, the JIT's cache of loops indexed by header pc,
+// which every VM running the program shares. Programs compiled for sampling also list the code
+// range of every if, while and for as (start pc, end pc, construct, line) quadruples, and of every
+// function body as (start pc, end pc, CONSTRUCT_FUNCTION, constant index of its name), outer
+// constructs before the ones nested in them.
+public class Program {
+    public final int[] code;
+    public final int[] lines;
+    public final Object[] constants;
+    public final int maxStack;
+    public final int frameSize;
+    public final int instrumentation;
+    public final int[] regions;
+    public final AtomicReferenceArray<CompiledLoop> compiledLoops;
+
+    public Program(int[] code, int[] lines, Object[] constants, int maxStack, int frameSize, int instrumentation, int[] regions){
+        this.code = code;
+        this.lines = lines;
+        this.constants = constants;
+        this.maxStack = maxStack;
+        this.frameSize = frameSize;
+        this.instrumentation = instrumentation;
+        this.regions = regions;
+        this.compiledLoops = new AtomicReferenceArray<>(code.length);
+    }
+}
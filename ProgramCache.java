@@ -0,0 +1,119 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+// Compiled programs on disk, one file per distinct source and compile settings, named by a
+// SHA-256 of both. A file is read back through a memory mapping; one that is missing, truncated
+// or from another FORMAT_VERSION is a miss and gets rewritten. Files are written under a
+// temporary name and moved into place, so concurrent runs never see a partial file.
+//
+// Layout, big-endian: magic, FORMAT_VERSION, instrumentation, maxStack, frameSize, code length,
+// code, lines, region count, regions, constant count, then each constant as a byte length and its
+// UTF-8 bytes.
+public class ProgramCache {
+    private static final int MAGIC = 0x53495043;
+    private static final int FORMAT_VERSION = 9;
+    private static final char[] hexDigits = "0123456789abcdef".toCharArray();
+
+    private final Path directory;
+
+    public ProgramCache(Path directory){
+        this.directory = directory;
+    }
+
+    public String key(Source source, boolean optimize, int instrumentation, String... globals) throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update((byte) FORMAT_VERSION);
+        digest.update((byte) (optimize ? 1 : 0));
+        digest.update((byte) instrumentation);
+        for(String global : globals){
+            digest.update(global.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        source.digest(digest);
+
+        byte[] hash = digest.digest();
+        char[] key = new char[hash.length * 2];
+        for(int i = 0; i < hash.length; i++){
+            key[i * 2] = hexDigits[(hash[i] >> 4) & 0xf];
+            key[i * 2 + 1] = hexDigits[hash[i] & 0xf];
+        }
+        return new String(key);
+    }
+
+    // Returns null on a miss.
+    public Program load(String key){
+        Path file = directory.resolve(key + ".sipc");
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if(buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION){
+                return null;
+            }
+            int instrumentation = buffer.getInt();
+            int maxStack = buffer.getInt();
+            int frameSize = buffer.getInt();
+            int[] code = new int[buffer.getInt()];
+            int[] lines = new int[code.length];
+            buffer.asIntBuffer().get(code).get(lines);
+            buffer.position(buffer.position() + code.length * 8);
+            int[] regions = new int[buffer.getInt()];
+            buffer.asIntBuffer().get(regions);
+            buffer.position(buffer.position() + regions.length * 4);
+
+            Object[] constants = new Object[buffer.getInt()];
+            for(int i = 0; i < constants.length; i++){
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                constants[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return new Program(code, lines, constants, maxStack, frameSize, instrumentation, regions);
+        }catch(IOException | RuntimeException e){
+            return null;
+        }
+    }
+
+    public void store(String key, Program program) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + program.code.length * 8);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(program.instrumentation);
+        out.writeInt(program.maxStack);
+        out.writeInt(program.frameSize);
+        out.writeInt(program.code.length);
+        for(int word : program.code){
+            out.writeInt(word);
+        }
+        for(int line : program.lines){
+            out.writeInt(line);
+        }
+        out.writeInt(program.regions.length);
+        for(int word : program.regions){
+            out.writeInt(word);
+        }
+        out.writeInt(program.constants.length);
+        for(Object constant : program.constants){
+            byte[] utf8 = ((String) constant).getBytes(StandardCharsets.UTF_8);
+            out.writeInt(utf8.length);
+            out.write(utf8);
+        }
+
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, key, ".tmp");
+        try{
+            Files.write(temporary, bytes.toByteArray());
+            Files.move(temporary, directory.resolve(key + ".sipc"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }finally{
+            Files.deleteIfExists(temporary);
+        }
+    }
+}
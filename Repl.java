@@ -0,0 +1,89 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+// Runs statements one input at a time against a session that keeps every top-level variable
+// declared so far. Each input is parsed, resolved and compiled on its own against the session's
+// Resolver and run in the session's frame, so the work per input depends only on the input, not
+// on how long the session has been going.
+//
+// An input that fails, whether it does not compile or fails while running, takes back the
+// variables it declared. Anything it already changed in earlier variables or printed stays.
+public class Repl {
+    private final Resolver resolver;
+    private final VirtualMachine virtualMachine;
+    private final boolean optimize;
+    private int[] localValues;
+    private Object[] localRefs;
+
+    public Repl(Output output){
+        this(Boolean.parseBoolean(System.getProperty("optimize", "true")), Integer.getInteger("jit.threshold", 1000), output);
+    }
+
+    public Repl(boolean optimize, int jitThreshold, Output output){
+        this.resolver = new Resolver();
+        this.virtualMachine = new VirtualMachine(jitThreshold, output);
+        this.optimize = optimize;
+        this.localValues = new int[16];
+        this.localRefs = new Object[16];
+    }
+
+    // Runs one complete input: any number of statements, blocks included.
+    public void execute(String input) throws Exception {
+        int firstSlot = resolver.nextSlot();
+        int firstFunction = resolver.functionCount();
+        try{
+            Block statements = new Parser(Source.of(input)).parse();
+            Program program = new Compiler(optimize, Instrumentation.NONE, resolver, true).compile(statements);
+            if(program.frameSize > localValues.length){
+                int frameSize = Math.max(program.frameSize, localValues.length * 2);
+                localValues = Arrays.copyOf(localValues, frameSize);
+                localRefs = Arrays.copyOf(localRefs, frameSize);
+            }
+            virtualMachine.run(program, localValues, localRefs);
+        }catch(Exception e){
+            resolver.forget(firstSlot, firstFunction);
+            throw e;
+        }
+    }
+
+    // Whether input still has a block or parenthesis open, meaning more lines belong to it. Input
+    // that closes a bracket it never opened is complete, and wrong.
+    public static boolean incomplete(String input){
+        try{
+            Tokens tokens = new LexicalAnalyzer(Source.of(input)).tokenize();
+            return tokens.openBrackets() > 0 && tokens.strayClosers() == 0;
+        }catch(Exception e){
+            return false;
+        }
+    }
+
+    // Reads inputs until the end of in, prompting on prompt. Errors are reported and the session
+    // carries on.
+    public void run(BufferedReader in, PrintStream prompt) throws IOException {
+        StringBuilder input = new StringBuilder();
+        prompt.print("> ");
+        prompt.flush();
+        String line;
+        while((line = in.readLine()) != null){
+            input.append(line).append('\n');
+            if(incomplete(input.toString())){
+                prompt.print(". ");
+                prompt.flush();
+                continue;
+            }
+            if(!input.toString().isBlank()){
+                try{
+                    execute(input.toString());
+                }catch(Exception e){
+                    prompt.println(e.getMessage());
+                }
+            }
+            input.setLength(0);
+            prompt.print("> ");
+            prompt.flush();
+        }
+        prompt.println();
+    }
+}
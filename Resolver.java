@@ -0,0 +1,226 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Assigns every variable a slot in a single flat frame. Slots follow block nesting like a stack,
+// so a block's slots are reused by the next block at the same depth and the frame size is the
+// deepest point of nesting rather than the number of declarations.
+//
+// Functions get a frame of their own: their parameters take its first slots, and the body sees only
+// those, its own variables and the functions. Every function in a program can be called from
+// anywhere in it.
+//
+// Top-level variables and functions stay declared after resolve() returns, so resolving another
+// program with the same Resolver continues where the last one ended; that is how a REPL session
+// grows.
+public class Resolver {
+    private ScopeList<Integer> slots;
+    private int nextSlot;
+    private int frameSize;
+    private final Map<Identifier, FunctionDeclaration> functions;
+    private final List<FunctionDeclaration> functionOrder;
+    // The function whose body is being resolved, or null at the top level.
+    private FunctionDeclaration function;
+
+    public Resolver(){
+        this.slots = new ScopeList<>();
+        this.nextSlot = 0;
+        this.frameSize = 0;
+        this.functions = new HashMap<>();
+        this.functionOrder = new ArrayList<>();
+    }
+
+    // Globals are variables the host declares before the program starts; they take the first slots
+    // in order.
+    public int resolve(Block program, String... globals) throws Exception {
+        for(String global : globals){
+            Identifier name = Identifier.of(global);
+            if(slots.containsKey(name)){
+                throw new Exception("Duplicate global " + global);
+            }
+            slots.put(name, nextSlot++);
+        }
+        frameSize = nextSlot;
+        for(Statement statement : program.statements){
+            if(statement instanceof FunctionDeclaration declaration){
+                declare(declaration);
+            }
+        }
+        for(Statement statement : program.statements){
+            if(statement instanceof FunctionDeclaration declaration){
+                function(declaration);
+            }else{
+                statement(statement);
+            }
+        }
+        return frameSize;
+    }
+
+    // The slot the next top-level variable gets; every top-level variable so far is below it.
+    public int nextSlot(){
+        return nextSlot;
+    }
+
+    // How many functions have been declared; the next one declared gets this number.
+    public int functionCount(){
+        return functionOrder.size();
+    }
+
+    // Forgets the top-level variables from firstSlot on, the functions from firstFunction on, and
+    // any scopes a failed resolve() left open, as if the programs that declared them had never been
+    // resolved.
+    public void forget(int firstSlot, int firstFunction) throws Exception {
+        while(slots.size() > 1){
+            slots.decreaseScope();
+        }
+        slots.get(0).values().removeIf(slot -> slot >= firstSlot);
+        nextSlot = firstSlot;
+        while(functionOrder.size() > firstFunction){
+            functions.remove(functionOrder.remove(functionOrder.size() - 1).name);
+        }
+    }
+
+    private void declare(FunctionDeclaration declaration) throws Exception {
+        if(functions.containsKey(declaration.name)){
+            throw new Exception("Duplicate function " + declaration.name + " on line " + declaration.line);
+        }
+        declaration.resultType = Compiler.type(declaration.returnType);
+        declaration.parameterTypes = new int[declaration.parameters.size()];
+        for(int i = 0; i < declaration.parameterTypes.length; i++){
+            declaration.parameterTypes[i] = Compiler.type(declaration.parameters.get(i).type);
+        }
+        functions.put(declaration.name, declaration);
+        functionOrder.add(declaration);
+    }
+
+    private void function(FunctionDeclaration declaration) throws Exception {
+        ScopeList<Integer> outerSlots = slots;
+        int outerNextSlot = nextSlot;
+        int outerFrameSize = frameSize;
+        slots = new ScopeList<>();
+        nextSlot = 0;
+        function = declaration;
+        try{
+            for(Declaration parameter : declaration.parameters){
+                if(slots.containsKey(parameter.name)){
+                    throw new Exception("Tried to create variable from reserved identifier on line " + parameter.line);
+                }
+                parameter.slot = nextSlot++;
+                slots.put(parameter.name, parameter.slot);
+            }
+            frameSize = nextSlot;
+            scope(declaration.body);
+            declaration.frameSize = frameSize;
+        }finally{
+            slots = outerSlots;
+            nextSlot = outerNextSlot;
+            frameSize = outerFrameSize;
+            function = null;
+        }
+    }
+
+    private void statement(Statement statement) throws Exception {
+        if(statement instanceof Declaration declaration){
+            expression(declaration.value);
+            if(slots.containsKey(declaration.name)){
+                throw new Exception("Tried to create variable from reserved identifier on line " + declaration.line);
+            }
+            declaration.slot = nextSlot++;
+            frameSize = Math.max(frameSize, nextSlot);
+            slots.put(declaration.name, declaration.slot);
+        }else if(statement instanceof Assignment assignment){
+            expression(assignment.value);
+            assignment.slot = slot(assignment.name, assignment.line);
+        }else if(statement instanceof ElementAssignment elementAssignment){
+            expression(elementAssignment.value);
+            expression(elementAssignment.target);
+        }else if(statement instanceof MethodCall methodCall){
+            expression(methodCall.argument);
+        }else if(statement instanceof CallStatement callStatement){
+            expression(callStatement.call);
+        }else if(statement instanceof Return returnStatement){
+            if(function == null){
+                throw new Exception("Return outside of a function on line " + returnStatement.line);
+            }
+            expression(returnStatement.value);
+        }else if(statement instanceof FunctionDeclaration){
+            throw new Exception("Functions must be declared at the top level on line " + statement.line);
+        }else if(statement instanceof Block block){
+            scope(block);
+        }else if(statement instanceof IfStatement ifStatement){
+            for(int i = 0; i < ifStatement.conditions.size(); i++){
+                expression(ifStatement.conditions.get(i));
+                scope(ifStatement.branches.get(i));
+            }
+            if(ifStatement.elseBranch != null){
+                scope(ifStatement.elseBranch);
+            }
+        }else if(statement instanceof WhileLoop whileLoop){
+            expression(whileLoop.condition);
+            scope(whileLoop.body);
+        }else if(statement instanceof ForLoop forLoop){
+            int firstSlot = enterScope();
+            statement(forLoop.initializer);
+            expression(forLoop.condition);
+            scope(forLoop.body);
+            statement(forLoop.adjustment);
+            exitScope(firstSlot);
+        }
+    }
+
+    private void expression(Expression expression) throws Exception {
+        if(expression instanceof Variable variable){
+            variable.slot = slot(variable.name, variable.line);
+        }else if(expression instanceof BinaryOperation binaryOperation){
+            expression(binaryOperation.left);
+            expression(binaryOperation.right);
+        }else if(expression instanceof UnaryOperation unaryOperation){
+            expression(unaryOperation.operand);
+        }else if(expression instanceof NewArray newArray){
+            newArray.elementType = Compiler.type(newArray.type);
+            expression(newArray.length);
+        }else if(expression instanceof ArrayLength arrayLength){
+            expression(arrayLength.array);
+        }else if(expression instanceof ElementAccess elementAccess){
+            expression(elementAccess.array);
+            expression(elementAccess.index);
+        }else if(expression instanceof Call call){
+            call.function = functions.get(call.name);
+            if(call.function == null){
+                throw new Exception("Unknown function " + call.name + " on line " + call.line);
+            }
+            if(call.arguments.size() != call.function.parameters.size()){
+                throw new Exception("Wrong number of arguments to " + call.name + " on line " + call.line);
+            }
+            for(Expression argument : call.arguments){
+                expression(argument);
+            }
+        }
+    }
+
+    private void scope(Block block) throws Exception {
+        int firstSlot = enterScope();
+        for(Statement statement : block.statements){
+            statement(statement);
+        }
+        exitScope(firstSlot);
+    }
+
+    private int enterScope(){
+        slots.increaseScope();
+        return nextSlot;
+    }
+
+    private void exitScope(int firstSlot) throws Exception {
+        slots.decreaseScope();
+        nextSlot = firstSlot;
+    }
+
+    private int slot(Identifier name, int line) throws Exception {
+        if(!slots.containsKey(name)){
+            throw new Exception("Unknown identifier on line " + line);
+        }
+        return slots.get(name);
+    }
+}
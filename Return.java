@@ -0,0 +1,8 @@
+public class Return extends Statement {
+    public final Expression value;
+
+    public Return(Expression value, int line){
+        super(line);
+        this.value = value;
+    }
+}
@@ -0,0 +1,120 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+// UTF-8 program text addressed by absolute byte offset. Files are memory-mapped, so the text
+// itself never lives on the heap; non-ASCII characters are decoded only when they are read.
+public class Source {
+    private final ByteBuffer bytes;
+    private final int length;
+    private int[] newlines;
+    private int newlineCount;
+
+    private Source(ByteBuffer bytes){
+        this.bytes = bytes;
+        this.length = bytes.limit();
+    }
+
+    public static Source map(String fileName) throws IOException {
+        try(FileChannel channel = FileChannel.open(Path.of(fileName), StandardOpenOption.READ)){
+            long size = channel.size();
+            if(size > Integer.MAX_VALUE){
+                throw new IOException(fileName + " is larger than 2GB");
+            }
+            return new Source(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    public static Source of(String text){
+        return new Source(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public void digest(MessageDigest digest){
+        digest.update(bytes.duplicate().clear());
+    }
+
+    public int length(){
+        return length;
+    }
+
+    public int byteAt(int offset){
+        return bytes.get(offset) & 0xff;
+    }
+
+    public int codePointAt(int offset){
+        int lead = bytes.get(offset) & 0xff;
+        if(lead < 0x80){
+            return lead;
+        }
+        int width = width(offset);
+        int codePoint = lead & (0xff >>> (width + 1));
+        for(int i = 1; i < width; i++){
+            codePoint = (codePoint << 6) | (bytes.get(offset + i) & 0x3f);
+        }
+        return codePoint;
+    }
+
+    // Number of bytes taken by the character starting at offset, clamped to the end of input.
+    public int width(int offset){
+        int lead = bytes.get(offset) & 0xff;
+        int width = lead < 0xc0 ? 1 : lead < 0xe0 ? 2 : lead < 0xf0 ? 3 : 4;
+        return Math.min(width, length - offset);
+    }
+
+    public String text(int start, int end){
+        byte[] text = new byte[end - start];
+        bytes.get(start, text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+
+    public boolean regionMatches(int offset, String ascii){
+        if(offset + ascii.length() > length){
+            return false;
+        }
+        for(int i = 0; i < ascii.length(); i++){
+            if(bytes.get(offset + i) != ascii.charAt(i)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean regionEquals(int offset, int other, int length){
+        for(int i = 0; i < length; i++){
+            if(bytes.get(offset + i) != bytes.get(other + i)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Zero-based line of a byte offset. The newline index is only built the first time a line
+    // number is needed.
+    public int lineOf(int offset){
+        if(newlines == null){
+            indexNewlines();
+        }
+        int line = Arrays.binarySearch(newlines, 0, newlineCount, offset);
+        return line >= 0 ? line : -line - 1;
+    }
+
+    private void indexNewlines(){
+        int[] index = new int[64];
+        int count = 0;
+        for(int i = 0; i < length; i++){
+            if(bytes.get(i) == '\n'){
+                if(count == index.length){
+                    index = Arrays.copyOf(index, count * 2);
+                }
+                index[count++] = i;
+            }
+        }
+        newlines = index;
+        newlineCount = count;
+    }
+}
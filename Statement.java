@@ -0,0 +1,7 @@
+public abstract class Statement {
+    public final int line;
+
+    protected Statement(int line){
+        this.line = line;
+    }
+}
@@ -0,0 +1,8 @@
+public class StringLiteral extends Expression {
+    public final String value;
+
+    public StringLiteral(String value, int line){
+        super(line);
+        this.value = value;
+    }
+}
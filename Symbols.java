@@ -0,0 +1,153 @@
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// The symbol table: every distinct name in use gets one Identifier and one number. Names are held
+// weakly, so a name stays interned while any AST, Resolver or lexer still refers to its Identifier
+// and is dropped after that; a later script using it again gets a new one. Numbers are never
+// reused. Keywords take the first numbers and are never dropped.
+//
+// An instance is the lexer's view of the table for one Source. It matches names by their bytes in
+// the source, so only the first occurrence of a name in a script allocates anything or touches
+// the shared table.
+public final class Symbols {
+    private static final ConcurrentHashMap<String, Entry> interned = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<Identifier> collected = new ReferenceQueue<>();
+    private static final AtomicInteger symbolCount = new AtomicInteger();
+    // Keeps the keywords reachable.
+    private static final Identifier[] keywords = new Identifier[Keyword.values().length];
+
+    static {
+        for(Keyword keyword : Keyword.values()){
+            keywords[keyword.ordinal()] = new Identifier(keyword.lexeme, symbolCount.getAndIncrement(), keyword);
+            interned.put(keyword.lexeme, new Entry(keywords[keyword.ordinal()], collected));
+        }
+    }
+
+    private static final class Entry extends WeakReference<Identifier> {
+        final String name;
+
+        Entry(Identifier identifier, ReferenceQueue<Identifier> queue){
+            super(identifier, queue);
+            this.name = identifier.identifier;
+        }
+    }
+
+    public static Identifier intern(String name){
+        Identifier identifier = find(name);
+        if(identifier != null){
+            return identifier;
+        }
+
+        removeCollected();
+        Identifier created = new Identifier(name, symbolCount.getAndIncrement(), null);
+        Entry entry = new Entry(created, collected);
+        while(true){
+            Entry current = interned.putIfAbsent(name, entry);
+            if(current == null){
+                return created;
+            }
+            Identifier existing = current.get();
+            if(existing != null){
+                return existing;
+            }
+            if(interned.replace(name, current, entry)){
+                return created;
+            }
+        }
+    }
+
+    // The identifier of a name that is interned already, or null; never adds one.
+    public static Identifier find(String name){
+        Entry entry = interned.get(name);
+        return entry != null ? entry.get() : null;
+    }
+
+    // Text that is not a name, as an Identifier of its own. It is never interned, so it matches no
+    // declaration and no keyword.
+    static Identifier uninterned(String text){
+        return new Identifier(text, -1, null);
+    }
+
+    private static void removeCollected(){
+        for(Reference<? extends Identifier> reference = collected.poll(); reference != null; reference = collected.poll()){
+            Entry entry = (Entry) reference;
+            interned.remove(entry.name, entry);
+        }
+    }
+
+    private final Source source;
+    // Open addressing on the hash of the name's bytes; starts and lengths locate the first
+    // occurrence in the source.
+    private Identifier[] identifiers;
+    private int[] hashes;
+    private int[] starts;
+    private int[] lengths;
+    private int size;
+
+    public Symbols(Source source){
+        this.source = source;
+        this.identifiers = new Identifier[64];
+        this.hashes = new int[64];
+        this.starts = new int[64];
+        this.lengths = new int[64];
+    }
+
+    // The identifier spelled by the length bytes at start.
+    public Identifier intern(int start, int length){
+        int hash = hash(start, length);
+        int mask = identifiers.length - 1;
+        int index = hash & mask;
+        while(identifiers[index] != null){
+            if(hashes[index] == hash && lengths[index] == length && source.regionEquals(starts[index], start, length)){
+                return identifiers[index];
+            }
+            index = (index + 1) & mask;
+        }
+
+        Identifier identifier = intern(source.text(start, start + length));
+        identifiers[index] = identifier;
+        hashes[index] = hash;
+        starts[index] = start;
+        lengths[index] = length;
+        if(++size * 2 > identifiers.length){
+            grow();
+        }
+        return identifier;
+    }
+
+    private int hash(int start, int length){
+        int hash = length;
+        for(int i = start; i < start + length; i++){
+            hash = hash * 31 + source.byteAt(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private void grow(){
+        Identifier[] oldIdentifiers = identifiers;
+        int[] oldHashes = hashes;
+        int[] oldStarts = starts;
+        int[] oldLengths = lengths;
+        int capacity = oldIdentifiers.length * 2;
+        identifiers = new Identifier[capacity];
+        hashes = new int[capacity];
+        starts = new int[capacity];
+        lengths = new int[capacity];
+        for(int i = 0; i < oldIdentifiers.length; i++){
+            if(oldIdentifiers[i] == null){
+                continue;
+            }
+            int index = oldHashes[i] & (capacity - 1);
+            while(identifiers[index] != null){
+                index = (index + 1) & (capacity - 1);
+            }
+            identifiers[index] = oldIdentifiers[i];
+            hashes[index] = oldHashes[i];
+            starts[index] = oldStarts[i];
+            lengths[index] = oldLengths[i];
+        }
+    }
+}
@@ -0,0 +1,138 @@
+import java.util.Arrays;
+
+// Every token of a Source, one entry per token across parallel primitive arrays: no object per
+// token, and no copy of the text, which stays in the Source. This is as flat as the heap gets
+// with the parser needing random access to the whole token stream (it looks ahead and jumps to
+// matching brackets): the script itself is never on the heap, but the table still grows by about
+// 22 bytes per token, so a script of hundreds of megabytes needs a table of a similar size.
+public class Tokens {
+    private static final CharClass[] classes = CharClass.values();
+
+    private final Source source;
+    private byte[] kinds;
+    private byte[] operators;
+    private Identifier[] identifiers;
+    private int[] starts;
+    private int[] lengths;
+    private int[] matches;
+    private int count;
+    private int openBrackets;
+    private int strayClosers;
+
+    public Tokens(Source source){
+        this.source = source;
+        int capacity = Math.max(16, Math.min(source.length() / 8, 1 << 16));
+        this.kinds = new byte[capacity];
+        this.operators = new byte[capacity];
+        this.identifiers = new Identifier[capacity];
+        this.starts = new int[capacity];
+        this.lengths = new int[capacity];
+        this.matches = new int[capacity];
+        this.count = 0;
+    }
+
+    // Operator tokens carry the operator they spell, or null if the lexeme is not an operator, and
+    // identifier tokens their interned identifier.
+    void add(CharClass kind, int start, int length, Operator operator, Identifier identifier){
+        if(count == kinds.length){
+            int capacity = count * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            operators = Arrays.copyOf(operators, capacity);
+            identifiers = Arrays.copyOf(identifiers, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            matches = Arrays.copyOf(matches, capacity);
+        }
+        kinds[count] = (byte) kind.ordinal();
+        operators[count] = (byte) (operator == null ? -1 : operator.ordinal());
+        identifiers[count] = identifier;
+        starts[count] = start;
+        lengths[count] = length;
+        matches[count] = -1;
+        count++;
+    }
+
+    // Pairs the bracket tokens at open and close.
+    void match(int open, int close){
+        matches[open] = close;
+        matches[close] = open;
+    }
+
+    // Brackets still open at the end, and closers that closed nothing or the wrong kind.
+    void unmatched(int openBrackets, int strayClosers){
+        this.openBrackets = openBrackets;
+        this.strayClosers = strayClosers;
+    }
+
+    // Index of the bracket matching the one at index, or -1 if it has none or is not a bracket.
+    public int match(int index){
+        return index < count ? matches[index] : -1;
+    }
+
+    public int openBrackets(){
+        return openBrackets;
+    }
+
+    public int strayClosers(){
+        return strayClosers;
+    }
+
+    public int size(){
+        return count;
+    }
+
+    // Past the last token the kind is UNKNOWN, so lookahead never needs a bounds check.
+    public CharClass kind(int index){
+        return index < count ? classes[kinds[index]] : CharClass.UNKNOWN;
+    }
+
+    public Operator operator(int index){
+        return index < count && operators[index] >= 0 ? Operator.operators[operators[index]] : null;
+    }
+
+    public Identifier identifier(int index){
+        return index < count ? identifiers[index] : null;
+    }
+
+    // The keyword at index, or null if the token is not one.
+    public Keyword keyword(int index){
+        return index < count && identifiers[index] != null ? identifiers[index].keyword : null;
+    }
+
+    public int start(int index){
+        return starts[index];
+    }
+
+    public int length(int index){
+        return lengths[index];
+    }
+
+    public int line(int index){
+        if(count == 0){
+            return 0;
+        }
+        return source.lineOf(starts[Math.min(index, count - 1)]);
+    }
+
+    public boolean is(int index, char c){
+        return index < count && lengths[index] == 1 && source.byteAt(starts[index]) == c;
+    }
+
+    public boolean matches(int index, String lexeme){
+        return index < count && lengths[index] == lexeme.length() && source.regionMatches(starts[index], lexeme);
+    }
+
+    public String lexeme(int index){
+        return index < count ? source.text(starts[index], starts[index] + lengths[index]) : "";
+    }
+
+    // Contents of a string literal token without its quotes. Line breaks inside the literal are
+    // dropped, as they always have been.
+    public String stringValue(int index){
+        String value = source.text(starts[index] + 1, starts[index] + lengths[index] - 1);
+        if(value.indexOf('\n') == -1){
+            return value;
+        }
+        return value.replace("\r", "").replace("\n", "");
+    }
+}
@@ -0,0 +1,258 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Works out the type of every expression from the declarations of the variables in it, and
+// reports every type error in a resolved program at once, before any of it runs. A variable whose
+// declaration is not part of the program (a global, or in a REPL session a variable of an earlier
+// input) has an UNKNOWN type, and so does anything computed from it that could still go either
+// way; the VM checks those when they run.
+//
+// Function bodies are checked in a frame of their own, where every type is known. Every path
+// through a function has to end in a return.
+//
+// The Compiler keeps a second instance in step with the code it emits and only picks the
+// unchecked opcodes where the types are known.
+public class TypeChecker {
+    public static final int UNKNOWN = -1;
+    private static final String[] constructs = {"if", "while", "for"};
+
+    private final int[] slotTypes;
+    private final List<String> errors;
+    // The function being checked, or null at the top level.
+    private final FunctionDeclaration function;
+
+    public TypeChecker(int frameSize){
+        this(frameSize, new ArrayList<>(), null);
+    }
+
+    private TypeChecker(int frameSize, List<String> errors, FunctionDeclaration function){
+        this.slotTypes = new int[frameSize];
+        Arrays.fill(slotTypes, UNKNOWN);
+        this.errors = errors;
+        this.function = function;
+    }
+
+    // Throws one exception listing every type error, one per line, in program order.
+    public void check(Block program) throws Exception {
+        for(Statement statement : program.statements){
+            statement(statement);
+        }
+        if(!errors.isEmpty()){
+            throw new Exception(String.join("\n", errors));
+        }
+    }
+
+    public void declare(int slot, int type){
+        slotTypes[slot] = type;
+    }
+
+    public int slotType(int slot){
+        return slotTypes[slot];
+    }
+
+    // The type the expression has whenever it evaluates to anything.
+    public int type(Expression expression){
+        return expression(expression, false);
+    }
+
+    private void statement(Statement statement) throws Exception {
+        if(statement instanceof Declaration declaration){
+            int type = Compiler.type(declaration.type);
+            mismatch(expression(declaration.value, true), type, declaration.line);
+            declare(declaration.slot, type);
+        }else if(statement instanceof Assignment assignment){
+            mismatch(expression(assignment.value, true), slotTypes[assignment.slot], assignment.line);
+        }else if(statement instanceof ElementAssignment elementAssignment){
+            int element = expression(elementAssignment.target, true);
+            mismatch(expression(elementAssignment.value, true), element, elementAssignment.line);
+        }else if(statement instanceof MethodCall methodCall){
+            expression(methodCall.argument, true);
+        }else if(statement instanceof CallStatement callStatement){
+            expression(callStatement.call, true);
+        }else if(statement instanceof Return returnStatement){
+            mismatch(expression(returnStatement.value, true), function.resultType, returnStatement.line);
+        }else if(statement instanceof FunctionDeclaration declaration){
+            TypeChecker body = new TypeChecker(declaration.frameSize, errors, declaration);
+            for(int i = 0; i < declaration.parameters.size(); i++){
+                body.declare(declaration.parameters.get(i).slot, declaration.parameterTypes[i]);
+            }
+            body.statement(declaration.body);
+            if(!returns(declaration.body)){
+                errors.add("Missing return in function " + declaration.name + " on line " + declaration.line);
+            }
+        }else if(statement instanceof Block block){
+            for(Statement inner : block.statements){
+                statement(inner);
+            }
+        }else if(statement instanceof IfStatement ifStatement){
+            for(int i = 0; i < ifStatement.conditions.size(); i++){
+                condition(ifStatement.conditions.get(i), Opcode.CONSTRUCT_IF);
+                statement(ifStatement.branches.get(i));
+            }
+            if(ifStatement.elseBranch != null){
+                statement(ifStatement.elseBranch);
+            }
+        }else if(statement instanceof WhileLoop whileLoop){
+            condition(whileLoop.condition, Opcode.CONSTRUCT_WHILE);
+            statement(whileLoop.body);
+        }else if(statement instanceof ForLoop forLoop){
+            statement(forLoop.initializer);
+            condition(forLoop.condition, Opcode.CONSTRUCT_FOR);
+            statement(forLoop.body);
+            statement(forLoop.adjustment);
+        }
+    }
+
+    // Whether every way through the statement ends in a return.
+    private static boolean returns(Statement statement){
+        if(statement instanceof Return){
+            return true;
+        }else if(statement instanceof Block block){
+            for(Statement inner : block.statements){
+                if(returns(inner)){
+                    return true;
+                }
+            }
+        }else if(statement instanceof IfStatement ifStatement){
+            if(ifStatement.elseBranch == null || !returns(ifStatement.elseBranch)){
+                return false;
+            }
+            for(Block branch : ifStatement.branches){
+                if(!returns(branch)){
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void condition(Expression condition, int construct){
+        int type = expression(condition, true);
+        if(type != UNKNOWN && type != Opcode.TYPE_BOOL){
+            errors.add("Improper " + constructs[construct] + " condition on line " + condition.line);
+        }
+    }
+
+    private void mismatch(int actual, int expected, int line){
+        if(actual != UNKNOWN && expected != UNKNOWN && actual != expected){
+            errors.add("Mismatched types on line " + line);
+        }
+    }
+
+    // Errors are only recorded when report is set, so type() can be asked about any expression. An
+    // operation that is in error has an UNKNOWN type, so one mistake is reported once.
+    private int expression(Expression expression, boolean report){
+        if(expression instanceof IntLiteral){
+            return Opcode.TYPE_INT;
+        }else if(expression instanceof StringLiteral){
+            return Opcode.TYPE_STRING;
+        }else if(expression instanceof BoolLiteral){
+            return Opcode.TYPE_BOOL;
+        }else if(expression instanceof Variable variable){
+            return slotTypes[variable.slot];
+        }else if(expression instanceof Call call){
+            for(int i = 0; i < call.arguments.size(); i++){
+                int argument = expression(call.arguments.get(i), report);
+                if(report){
+                    mismatch(argument, call.function.parameterTypes[i], call.line);
+                }
+            }
+            return call.function.resultType;
+        }else if(expression instanceof NewArray newArray){
+            int length = expression(newArray.length, report);
+            if(report && length != UNKNOWN && length != Opcode.TYPE_INT){
+                errors.add("Improper array length on line " + newArray.line);
+                return UNKNOWN;
+            }
+            return Opcode.arrayType(newArray.elementType);
+        }else if(expression instanceof ArrayLength arrayLength){
+            int array = expression(arrayLength.array, report);
+            if(report && array != UNKNOWN && !Opcode.isArray(array)){
+                errors.add("Attempted to take length of non array type " + className(array) + " on line " + arrayLength.line);
+                return UNKNOWN;
+            }
+            return Opcode.TYPE_INT;
+        }else if(expression instanceof ElementAccess elementAccess){
+            int array = expression(elementAccess.array, report);
+            int index = expression(elementAccess.index, report);
+            if(report && array != UNKNOWN && !Opcode.isArray(array)){
+                errors.add("Attempted to index non array type " + className(array) + " on line " + elementAccess.line);
+                return UNKNOWN;
+            }
+            if(report && index != UNKNOWN && index != Opcode.TYPE_INT){
+                errors.add("Improper array index on line " + elementAccess.line);
+                return UNKNOWN;
+            }
+            return Opcode.isArray(array) ? Opcode.elementType(array) : UNKNOWN;
+        }else if(expression instanceof UnaryOperation unaryOperation){
+            int operand = expression(unaryOperation.operand, report);
+            if(report && operand != UNKNOWN && operand != Opcode.TYPE_BOOL){
+                errors.add("Attempted to and non boolean type " + className(operand) + " on line " + unaryOperation.line);
+                return UNKNOWN;
+            }
+            return Opcode.TYPE_BOOL;
+        }else if(expression instanceof BinaryOperation binaryOperation){
+            int left = expression(binaryOperation.left, report);
+            int right = expression(binaryOperation.right, report);
+            Operator operator = binaryOperation.operator;
+            switch(operator){
+                case ADD, SUBTRACT, MULTIPLY, DIVIDE, MODULO:
+                    if(report && !operands(left, right, Opcode.TYPE_INT, verb(operator), binaryOperation.line)){
+                        return UNKNOWN;
+                    }
+                    return Opcode.TYPE_INT;
+                case LESS, LESS_OR_EQUAL, GREATER, GREATER_OR_EQUAL:
+                    if(report && !operands(left, right, Opcode.TYPE_INT, "compare", binaryOperation.line)){
+                        return UNKNOWN;
+                    }
+                    return Opcode.TYPE_BOOL;
+                case AND, OR:
+                    int type = Opcode.TYPE_BOOL;
+                    for(int operand : new int[]{left, right}){
+                        if(report && operand != UNKNOWN && operand != Opcode.TYPE_BOOL){
+                            errors.add("Attempted to " + (operator == Operator.OR ? "or" : "and") + " non boolean type " + className(operand) + " on line " + binaryOperation.line);
+                            type = UNKNOWN;
+                        }
+                    }
+                    return type;
+                default:
+                    return Opcode.TYPE_BOOL;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    // Records an error and returns false unless both operands can have the expected type.
+    private boolean operands(int left, int right, int expected, String verb, int line){
+        if((left != UNKNOWN && left != expected) || (right != UNKNOWN && right != expected)){
+            errors.add("Attempted to " + verb + " incompatible types " + className(right) + " and " + className(left) + " on line " + line);
+            return false;
+        }
+        return true;
+    }
+
+    private static String verb(Operator operator){
+        return switch(operator){
+            case ADD -> "add";
+            case SUBTRACT -> "subtract";
+            case MULTIPLY -> "multiply";
+            case DIVIDE -> "divide";
+            default -> "mod";
+        };
+    }
+
+    // Same names the VM's errors use.
+    private static String className(int type){
+        return switch(type){
+            case Opcode.TYPE_INT -> Integer.class.toString();
+            case Opcode.TYPE_STRING -> String.class.toString();
+            case Opcode.TYPE_BOOL -> Boolean.class.toString();
+            case Opcode.TYPE_INT_ARRAY -> int[].class.toString();
+            case Opcode.TYPE_STRING_ARRAY -> String[].class.toString();
+            case Opcode.TYPE_BOOL_ARRAY -> boolean[].class.toString();
+            default -> "unknown";
+        };
+    }
+}
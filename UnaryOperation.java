@@ -0,0 +1,10 @@
+public class UnaryOperation extends Expression {
+    public final Operator operator;
+    public final Expression operand;
+
+    public UnaryOperation(Operator operator, Expression operand, int line){
+        super(line);
+        this.operator = operator;
+        this.operand = operand;
+    }
+}
@@ -0,0 +1,42 @@
+import java.util.Arrays;
+
+// Tags for the VM's tagged slots. Every operand stack entry and frame slot is an int payload
+// plus a reference: INT or BOOL for primitives (the payload holds the value, bools as 0/1),
+// or the String, int[], boolean[] or String[] itself for strings and arrays.
+public enum ValueType {
+    INT,
+    BOOL;
+
+    public static boolean isString(Object ref){
+        return ref instanceof String;
+    }
+
+    public static boolean sameType(Object x, Object y){
+        return x == y || (!(x instanceof ValueType) && !(y instanceof ValueType) && x.getClass() == y.getClass());
+    }
+
+    // The boxed class the value used to have, or the array class, for error messages.
+    public static Class<?> classOf(Object ref){
+        if(ref == INT){
+            return Integer.class;
+        }else if(ref == BOOL){
+            return Boolean.class;
+        }
+        return ref.getClass();
+    }
+
+    public static String toString(int value, Object ref){
+        if(ref == INT){
+            return Integer.toString(value);
+        }else if(ref == BOOL){
+            return value != 0 ? "true" : "false";
+        }else if(ref instanceof int[] array){
+            return Arrays.toString(array);
+        }else if(ref instanceof boolean[] array){
+            return Arrays.toString(array);
+        }else if(ref instanceof String[] array){
+            return Arrays.toString(array);
+        }
+        return (String) ref;
+    }
+}
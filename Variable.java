@@ -0,0 +1,9 @@
+public class Variable extends Expression {
+    public final Identifier name;
+    public int slot = -1;
+
+    public Variable(Identifier name, int line){
+        super(line);
+        this.name = name;
+    }
+}
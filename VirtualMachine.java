@@ -0,0 +1,623 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class VirtualMachine {
+    private static final String[] constructs = {"if", "while", "for"};
+    private static final VarHandle POSITION;
+    private static final VarHandle CALL_DEPTH;
+    private static final int MAX_CALL_DEPTH = 1 << 20;
+    // Function frames together, and the operand stack, each get at most this many slots.
+    private static final int MAX_SLOTS = 1 << 21;
+
+    static {
+        try{
+            POSITION = MethodHandles.lookup().findVarHandle(VirtualMachine.class, "position", int.class);
+            CALL_DEPTH = MethodHandles.lookup().findVarHandle(VirtualMachine.class, "callDepth", int.class);
+        }catch(ReflectiveOperationException e){
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int jitThreshold;
+    private final Output output;
+    private int[] backEdgeCounts;
+    // pc of the last POSITION executed, or -1. Written and read with opaque access: a sampler on
+    // another thread only needs to see some recent value, and a plain store keeps the loop fast.
+    private int position = -1;
+    // pcs of the calls a program compiled for sampling is in, outermost first, callDepth of them.
+    // A call site is written before callDepth is released, so a sampler acquiring it sees them.
+    private int[] callSites = new int[16];
+    private int callDepth;
+
+    public VirtualMachine(){
+        this(Integer.getInteger("jit.threshold", 1000), Output.stdout());
+    }
+
+    public VirtualMachine(Output output){
+        this(Integer.getInteger("jit.threshold", 1000), output);
+    }
+
+    // A negative threshold keeps every loop in the interpreter.
+    public VirtualMachine(int jitThreshold, Output output){
+        this.jitThreshold = jitThreshold;
+        this.output = output;
+    }
+
+    // Output is flushed when the program ends, whether it finishes or fails. Globals are the
+    // Integer, Boolean or String values, or int[], boolean[] or String[] arrays, of the globals the
+    // program was compiled with, in order. Arrays are shared with the program, not copied.
+    // Returns what the run spent its time on if the program was compiled with profiling, or null.
+    public Profile run(Program program, Object... globals) throws Exception {
+        int[] localValues = new int[program.frameSize];
+        Object[] localRefs = new Object[program.frameSize];
+        for(int slot = 0; slot < globals.length; slot++){
+            Object global = globals[slot];
+            if(global instanceof Integer value){
+                localValues[slot] = value;
+                localRefs[slot] = ValueType.INT;
+            }else if(global instanceof Boolean value){
+                localValues[slot] = value ? 1 : 0;
+                localRefs[slot] = ValueType.BOOL;
+            }else if(global instanceof String || global instanceof int[] || global instanceof boolean[]
+                    || (global instanceof String[] strings && !Arrays.asList(strings).contains(null))){
+                localRefs[slot] = global;
+            }else{
+                throw new Exception("Unsupported global value " + global);
+            }
+        }
+        return run(program, localValues, localRefs);
+    }
+
+    // Runs the program in a frame the caller keeps, so variables it leaves behind can be read by
+    // the next program run in the same frame. The frame must hold at least program.frameSize slots.
+    Profile run(Program program, int[] localValues, Object[] localRefs) throws Exception {
+        Profile profile = (program.instrumentation & Instrumentation.PROFILE) != 0 ? new Profile(program) : null;
+        try{
+            execute(program, localValues, localRefs, profile);
+        }finally{
+            if(profile != null){
+                profile.finish();
+            }
+            POSITION.setOpaque(this, -1);
+            CALL_DEPTH.setRelease(this, 0);
+            output.flush();
+        }
+        return profile;
+    }
+
+    // Where a program compiled for sampling is, as the pc of the statement it last started, or -1
+    // when it is not running one. Safe to call from any thread.
+    public int position(){
+        return (int) POSITION.getOpaque(this);
+    }
+
+    // The pcs of the calls a program compiled for sampling is in, outermost first. Safe to call
+    // from any thread; like position(), the answer may be a call or two out of date.
+    public int[] callSites(){
+        int depth = (int) CALL_DEPTH.getAcquire(this);
+        int[] sites = callSites;
+        return Arrays.copyOf(sites, Math.min(depth, sites.length));
+    }
+
+    // Publishes a call for sampling. The callee's entry counts as its position until its first
+    // statement, so the sampler never sees the new call with the caller's position.
+    private void enterCall(int site, int depth, int entry){
+        if(depth > callSites.length){
+            callSites = Arrays.copyOf(callSites, depth * 2);
+        }
+        callSites[depth - 1] = site;
+        CALL_DEPTH.setRelease(this, depth);
+        POSITION.setOpaque(this, entry);
+    }
+
+    private void execute(Program program, int[] localValues, Object[] localRefs, Profile profile) throws Exception {
+        final int[] code = program.code;
+        final Object[] constants = program.constants;
+        final ArrayList<Events.Loop> loops = new ArrayList<>();
+        int[] stackValues = new int[program.maxStack];
+        Object[] stackRefs = new Object[program.maxStack];
+        int sp = 0;
+        int pc = 0;
+        // Function frames follow the program's frame in the same arrays, at fp. Calls that need
+        // more room move everything to bigger arrays; the program's slots are copied back at the end.
+        int[] values = localValues;
+        Object[] refs = localRefs;
+        int fp = 0;
+        int frameSize = program.frameSize;
+        // Return pc, fp and frame size of each active call.
+        int[] calls = new int[3 * 16];
+        int depth = 0;
+        final boolean sampled = (program.instrumentation & Instrumentation.SAMPLING) != 0;
+
+        if(jitThreshold >= 0){
+            backEdgeCounts = new int[code.length];
+        }
+
+        try{
+            while(pc < code.length){
+                int opcode = code[pc];
+                switch(opcode){
+                    case Opcode.INT_CONST:
+                        stackValues[sp] = code[pc + 1];
+                        stackRefs[sp++] = ValueType.INT;
+                        pc += 2;
+                        break;
+                    case Opcode.BOOL_CONST:
+                        stackValues[sp] = code[pc + 1];
+                        stackRefs[sp++] = ValueType.BOOL;
+                        pc += 2;
+                        break;
+                    case Opcode.STRING_CONST:
+                        stackRefs[sp++] = constants[code[pc + 1]];
+                        pc += 2;
+                        break;
+                    case Opcode.LOAD: {
+                        int slot = code[pc + 1];
+                        stackValues[sp] = values[fp + slot];
+                        stackRefs[sp++] = refs[fp + slot];
+                        pc += 2;
+                        break;
+                    }
+                    case Opcode.STORE: {
+                        int slot = code[pc + 1];
+                        sp--;
+                        if(!ValueType.sameType(stackRefs[sp], refs[fp + slot])){
+                            throw new Exception("Mismatched types on line " + program.lines[pc]);
+                        }
+                        values[fp + slot] = stackValues[sp];
+                        refs[fp + slot] = stackRefs[sp];
+                        pc += 2;
+                        break;
+                    }
+                    case Opcode.DECLARE: {
+                        int slot = code[pc + 1];
+                        sp--;
+                        if(!isType(stackRefs[sp], code[pc + 2])){
+                            throw new Exception("Mismatched types on line " + program.lines[pc]);
+                        }
+                        values[fp + slot] = stackValues[sp];
+                        refs[fp + slot] = stackRefs[sp];
+                        pc += 3;
+                        break;
+                    }
+                    case Opcode.OPERATOR: {
+                        Operator operator = Operator.operators[code[pc + 1]];
+                        operator.evaluate(stackValues, stackRefs, sp, program.lines[pc]);
+                        sp -= operator.arity - 1;
+                        pc += 2;
+                        break;
+                    }
+                    case Opcode.PROFILE_LINE:
+                        profile.line(code[pc + 1]);
+                        pc += 2;
+                        break;
+                    case Opcode.PROFILE_OPERATOR: {
+                        Operator operator = Operator.operators[code[pc + 1]];
+                        long start = System.nanoTime();
+                        operator.evaluate(stackValues, stackRefs, sp, program.lines[pc]);
+                        profile.operator(operator, System.nanoTime() - start);
+                        sp -= operator.arity - 1;
+                        pc += 2;
+                        break;
+                    }
+                    case Opcode.PROFILE_LOOP:
+                        profile.loop(pc);
+                        pc += 2;
+                        break;
+                    case Opcode.LOOP_ENTER: {
+                        // Without a recording the loop gets a null entry, so exits still pair up.
+                        Events.Loop loop = null;
+                        if(Events.recording()){
+                            loop = new Events.Loop();
+                            loop.line = program.lines[pc];
+                            loop.kind = constructs[code[pc + 1]];
+                            loop.begin();
+                        }
+                        loops.add(loop);
+                        pc += 2;
+                        break;
+                    }
+                    case Opcode.LOOP_ITERATION: {
+                        Events.Loop loop = loops.get(loops.size() - 1);
+                        if(loop != null){
+                            loop.iterations++;
+                        }
+                        pc++;
+                        break;
+                    }
+                    case Opcode.LOOP_EXIT: {
+                        Events.Loop loop = loops.remove(loops.size() - 1);
+                        if(loop != null){
+                            loop.commit();
+                        }
+                        pc++;
+                        break;
+                    }
+                    case Opcode.SHORT_CIRCUIT: {
+                        Operator operator = Operator.operators[code[pc + 2]];
+                        if(profile != null){
+                            profile.operator(operator, 0);
+                        }
+                        if(operator.decides(stackValues[sp - 1], stackRefs[sp - 1], program.lines[pc])){
+                            pc = code[pc + 1];
+                        }else{
+                            sp--;
+                            pc += 3;
+                        }
+                        break;
+                    }
+                    case Opcode.UNCHECKED_OPERATOR: {
+                        Operator operator = Operator.operators[code[pc + 1]];
+                        operator.apply(stackValues, stackRefs, sp);
+                        sp -= operator.arity - 1;
+                        pc += 2;
+                        break;
+                    }
+                    case Opcode.UNCHECKED_DECLARE:
+                    case Opcode.UNCHECKED_STORE: {
+                        int slot = code[pc + 1];
+                        sp--;
+                        values[fp + slot] = stackValues[sp];
+                        refs[fp + slot] = stackRefs[sp];
+                        pc += 1 + Opcode.operandCount(opcode);
+                        break;
+                    }
+                    case Opcode.INCREMENT:
+                        values[fp + code[pc + 1]] += code[pc + 2];
+                        pc += 3;
+                        break;
+                    case Opcode.BRANCH_SLOT_CONST:
+                        pc = Operator.operators[code[pc + 3]].compare(values[fp + code[pc + 2]], code[pc + 4]) ? pc + 5 : code[pc + 1];
+                        break;
+                    case Opcode.BRANCH_SLOT_SLOT:
+                        pc = Operator.operators[code[pc + 3]].compare(values[fp + code[pc + 2]], values[fp + code[pc + 4]]) ? pc + 5 : code[pc + 1];
+                        break;
+                    case Opcode.UNCHECKED_JUMP_IF_FALSE:
+                        sp--;
+                        pc = stackValues[sp] != 0 ? pc + 2 : code[pc + 1];
+                        break;
+                    case Opcode.UNCHECKED_SHORT_CIRCUIT:
+                        if((stackValues[sp - 1] != 0) == (code[pc + 2] == Operator.OR.ordinal())){
+                            pc = code[pc + 1];
+                        }else{
+                            sp--;
+                            pc += 3;
+                        }
+                        break;
+                    case Opcode.CHECK_BOOL:
+                        Operator.operators[code[pc + 1]].checkBool(stackRefs[sp - 1], program.lines[pc]);
+                        pc += 2;
+                        break;
+                    case Opcode.POSITION:
+                        POSITION.setOpaque(this, pc);
+                        pc++;
+                        break;
+                    case Opcode.JUMP: {
+                        int target = code[pc + 1];
+                        pc = target < pc && jitThreshold >= 0 ? backEdge(program, values, refs, fp, pc, target) : target;
+                        break;
+                    }
+                    case Opcode.JUMP_IF_FALSE: {
+                        sp--;
+                        if(stackRefs[sp] != ValueType.BOOL){
+                            throw new Exception("Improper " + constructs[code[pc + 2]] + " condition on line " + program.lines[pc]);
+                        }
+                        pc = stackValues[sp] != 0 ? pc + 3 : code[pc + 1];
+                        break;
+                    }
+                    case Opcode.CALL:
+                    case Opcode.TAIL_CALL: {
+                        int arguments = code[pc + 2];
+                        int callee = opcode == Opcode.CALL ? fp + frameSize : fp;
+                        int calleeFrameSize = code[pc + 3];
+                        sp -= arguments;
+                        if(callee + calleeFrameSize > MAX_SLOTS || sp + code[pc + 4] > MAX_SLOTS){
+                            throw new Exception("Stack overflow on line " + program.lines[pc]);
+                        }
+                        if(callee + calleeFrameSize > values.length){
+                            int length = Math.min(Math.max(values.length * 2, callee + calleeFrameSize), MAX_SLOTS);
+                            values = Arrays.copyOf(values, length);
+                            refs = Arrays.copyOf(refs, length);
+                        }
+                        if(sp + code[pc + 4] > stackValues.length){
+                            int length = Math.min(Math.max(stackValues.length * 2, sp + code[pc + 4]), MAX_SLOTS);
+                            stackValues = Arrays.copyOf(stackValues, length);
+                            stackRefs = Arrays.copyOf(stackRefs, length);
+                        }
+                        if(opcode == Opcode.CALL){
+                            if(depth == calls.length){
+                                if(depth == 3 * MAX_CALL_DEPTH){
+                                    throw new Exception("Stack overflow on line " + program.lines[pc]);
+                                }
+                                calls = Arrays.copyOf(calls, depth * 2);
+                            }
+                            calls[depth] = pc + 5;
+                            calls[depth + 1] = fp;
+                            calls[depth + 2] = frameSize;
+                            depth += 3;
+                            if(sampled){
+                                enterCall(pc, depth / 3, code[pc + 1]);
+                            }
+                        }else if(sampled){
+                            POSITION.setOpaque(this, code[pc + 1]);
+                        }
+                        System.arraycopy(stackValues, sp, values, callee, arguments);
+                        System.arraycopy(stackRefs, sp, refs, callee, arguments);
+                        fp = callee;
+                        frameSize = calleeFrameSize;
+                        pc = code[pc + 1];
+                        break;
+                    }
+                    case Opcode.RETURN:
+                        depth -= 3;
+                        pc = calls[depth];
+                        fp = calls[depth + 1];
+                        frameSize = calls[depth + 2];
+                        if(sampled){
+                            // Back in the caller, at the call.
+                            CALL_DEPTH.setRelease(this, depth / 3);
+                            POSITION.setOpaque(this, pc - 5);
+                        }
+                        break;
+                    case Opcode.CHECK_TYPE:
+                        if(!isType(stackRefs[sp - 1], code[pc + 1])){
+                            throw new Exception("Mismatched types on line " + program.lines[pc]);
+                        }
+                        pc += 2;
+                        break;
+                    case Opcode.POP:
+                        sp--;
+                        pc++;
+                        break;
+                    case Opcode.NEW_ARRAY:
+                        if(stackRefs[sp - 1] != ValueType.INT){
+                            throw new Exception("Improper array length on line " + program.lines[pc]);
+                        }
+                        stackRefs[sp - 1] = newArray(stackValues[sp - 1], code[pc + 1], program.lines[pc]);
+                        pc += 2;
+                        break;
+                    case Opcode.ARRAY_LENGTH: {
+                        Object array = stackRefs[sp - 1];
+                        if(array instanceof int[] ints){
+                            stackValues[sp - 1] = ints.length;
+                        }else if(array instanceof boolean[] bools){
+                            stackValues[sp - 1] = bools.length;
+                        }else if(array instanceof String[] strings){
+                            stackValues[sp - 1] = strings.length;
+                        }else{
+                            throw new Exception("Attempted to take length of non array type " + ValueType.classOf(array) + " on line " + program.lines[pc]);
+                        }
+                        stackRefs[sp - 1] = ValueType.INT;
+                        pc++;
+                        break;
+                    }
+                    case Opcode.LOAD_ELEMENT: {
+                        sp--;
+                        Object array = stackRefs[sp - 1];
+                        int index = stackValues[sp];
+                        int line = program.lines[pc];
+                        if(!(array instanceof int[] || array instanceof boolean[] || array instanceof String[])){
+                            throw new Exception("Attempted to index non array type " + ValueType.classOf(array) + " on line " + line);
+                        }else if(stackRefs[sp] != ValueType.INT){
+                            throw new Exception("Improper array index on line " + line);
+                        }
+                        if(array instanceof int[] ints){
+                            stackValues[sp - 1] = ints[checkIndex(index, ints.length, line)];
+                            stackRefs[sp - 1] = ValueType.INT;
+                        }else if(array instanceof boolean[] bools){
+                            stackValues[sp - 1] = bools[checkIndex(index, bools.length, line)] ? 1 : 0;
+                            stackRefs[sp - 1] = ValueType.BOOL;
+                        }else{
+                            String[] strings = (String[]) array;
+                            stackRefs[sp - 1] = strings[checkIndex(index, strings.length, line)];
+                        }
+                        pc++;
+                        break;
+                    }
+                    case Opcode.UNCHECKED_LOAD_ELEMENT: {
+                        sp--;
+                        int index = stackValues[sp];
+                        boolean check = code[pc + 2] != 0;
+                        switch(code[pc + 1]){
+                            case Opcode.TYPE_INT: {
+                                int[] ints = (int[]) stackRefs[sp - 1];
+                                if(check){
+                                    checkIndex(index, ints.length, program.lines[pc]);
+                                }
+                                stackValues[sp - 1] = ints[index];
+                                stackRefs[sp - 1] = ValueType.INT;
+                                break;
+                            }
+                            case Opcode.TYPE_BOOL: {
+                                boolean[] bools = (boolean[]) stackRefs[sp - 1];
+                                if(check){
+                                    checkIndex(index, bools.length, program.lines[pc]);
+                                }
+                                stackValues[sp - 1] = bools[index] ? 1 : 0;
+                                stackRefs[sp - 1] = ValueType.BOOL;
+                                break;
+                            }
+                            default: {
+                                String[] strings = (String[]) stackRefs[sp - 1];
+                                if(check){
+                                    checkIndex(index, strings.length, program.lines[pc]);
+                                }
+                                stackRefs[sp - 1] = strings[index];
+                            }
+                        }
+                        pc += 3;
+                        break;
+                    }
+                    case Opcode.STORE_ELEMENT: {
+                        sp -= 3;
+                        Object array = stackRefs[sp];
+                        int index = stackValues[sp + 1];
+                        Object ref = stackRefs[sp + 2];
+                        int line = program.lines[pc];
+                        if(!(array instanceof int[] || array instanceof boolean[] || array instanceof String[])){
+                            throw new Exception("Attempted to index non array type " + ValueType.classOf(array) + " on line " + line);
+                        }else if(stackRefs[sp + 1] != ValueType.INT){
+                            throw new Exception("Improper array index on line " + line);
+                        }
+                        if(array instanceof int[] ints && ref == ValueType.INT){
+                            ints[checkIndex(index, ints.length, line)] = stackValues[sp + 2];
+                        }else if(array instanceof boolean[] bools && ref == ValueType.BOOL){
+                            bools[checkIndex(index, bools.length, line)] = stackValues[sp + 2] != 0;
+                        }else if(array instanceof String[] strings && ref instanceof String string){
+                            strings[checkIndex(index, strings.length, line)] = string;
+                        }else{
+                            throw new Exception("Mismatched types on line " + line);
+                        }
+                        pc++;
+                        break;
+                    }
+                    case Opcode.UNCHECKED_STORE_ELEMENT: {
+                        sp -= 3;
+                        int index = stackValues[sp + 1];
+                        boolean check = code[pc + 2] != 0;
+                        switch(code[pc + 1]){
+                            case Opcode.TYPE_INT: {
+                                int[] ints = (int[]) stackRefs[sp];
+                                if(check){
+                                    checkIndex(index, ints.length, program.lines[pc]);
+                                }
+                                ints[index] = stackValues[sp + 2];
+                                break;
+                            }
+                            case Opcode.TYPE_BOOL: {
+                                boolean[] bools = (boolean[]) stackRefs[sp];
+                                if(check){
+                                    checkIndex(index, bools.length, program.lines[pc]);
+                                }
+                                bools[index] = stackValues[sp + 2] != 0;
+                                break;
+                            }
+                            default: {
+                                String[] strings = (String[]) stackRefs[sp];
+                                if(check){
+                                    checkIndex(index, strings.length, program.lines[pc]);
+                                }
+                                strings[index] = (String) stackRefs[sp + 2];
+                            }
+                        }
+                        pc += 3;
+                        break;
+                    }
+                    case Opcode.PRINT: {
+                        sp--;
+                        Object ref = stackRefs[sp];
+                        if(ref == ValueType.INT){
+                            output.println(stackValues[sp]);
+                        }else if(ref == ValueType.BOOL){
+                            output.println(stackValues[sp] != 0);
+                        }else if(ref instanceof String string){
+                            output.println(string);
+                        }else{
+                            output.println(ValueType.toString(0, ref));
+                        }
+                        pc++;
+                        break;
+                    }
+                    default:
+                        throw new Exception("Unknown opcode " + opcode + " at " + pc);
+                }
+            }
+        }catch(ArithmeticException e){
+            // Only / and % throw it. Reported here rather than left to the JVM, whose message is
+            // dropped once a hot division has thrown often enough.
+            throw new Exception("Division by zero on line " + program.lines[pc]);
+        }finally{
+            if(values != localValues){
+                System.arraycopy(values, 0, localValues, 0, localValues.length);
+                System.arraycopy(refs, 0, localRefs, 0, localRefs.length);
+            }
+        }
+    }
+
+    private int backEdge(Program program, int[] localValues, Object[] localRefs, int fp, int pc, int header) throws Exception {
+        CompiledLoop loop = program.compiledLoops.get(header);
+        if(loop == null && ++backEdgeCounts[pc] == jitThreshold){
+            loop = JitCompiler.compile(program, header, pc + 2, localRefs, fp);
+            program.compiledLoops.set(header, loop);
+        }
+        if(loop == null){
+            return header;
+        }
+
+        int resume = loop.run(localValues, localRefs, fp, output);
+        if(resume == CompiledLoop.DEOPTIMIZE){
+            program.compiledLoops.compareAndSet(header, loop, null);
+            backEdgeCounts[pc] = 0;
+            return header;
+        }
+        return resume;
+    }
+
+    private static boolean isType(Object ref, int type){
+        return switch(type){
+            case Opcode.TYPE_INT -> ref == ValueType.INT;
+            case Opcode.TYPE_STRING -> ValueType.isString(ref);
+            case Opcode.TYPE_BOOL -> ref == ValueType.BOOL;
+            case Opcode.TYPE_INT_ARRAY -> ref instanceof int[];
+            case Opcode.TYPE_STRING_ARRAY -> ref instanceof String[];
+            default -> ref instanceof boolean[];
+        };
+    }
+
+    // A new array of the element type filled with 0, false or "".
+    static Object newArray(int length, int elementType, int line) throws Exception {
+        if(length < 0){
+            throw new Exception("Negative array length " + length + " on line " + line);
+        }
+        if(elementType == Opcode.TYPE_INT){
+            return new int[length];
+        }else if(elementType == Opcode.TYPE_BOOL){
+            return new boolean[length];
+        }
+        String[] strings = new String[length];
+        Arrays.fill(strings, "");
+        return strings;
+    }
+
+    // Checked divisor for compiled loops.
+    static int divisor(int value, int line) throws Exception {
+        if(value == 0){
+            throw new Exception("Division by zero on line " + line);
+        }
+        return value;
+    }
+
+    static int checkIndex(int index, int length, int line) throws Exception {
+        if(index < 0 || index >= length){
+            throw new Exception("Index " + index + " out of bounds for length " + length + " on line " + line);
+        }
+        return index;
+    }
+
+    // Checked element access for compiled loops.
+    static int element(int[] array, int index, int line) throws Exception {
+        return array[checkIndex(index, array.length, line)];
+    }
+
+    static boolean element(boolean[] array, int index, int line) throws Exception {
+        return array[checkIndex(index, array.length, line)];
+    }
+
+    static String element(String[] array, int index, int line) throws Exception {
+        return array[checkIndex(index, array.length, line)];
+    }
+
+    static void setElement(int[] array, int index, int value, int line) throws Exception {
+        array[checkIndex(index, array.length, line)] = value;
+    }
+
+    static void setElement(boolean[] array, int index, boolean value, int line) throws Exception {
+        array[checkIndex(index, array.length, line)] = value;
+    }
+
+    static void setElement(String[] array, int index, String value, int line) throws Exception {
+        array[checkIndex(index, array.length, line)] = value;
+    }
+}
@@ -0,0 +1,10 @@
+public class WhileLoop extends Statement {
+    public final Expression condition;
+    public final Block body;
+
+    public WhileLoop(Expression condition, Block body, int line){
+        super(line);
+        this.condition = condition;
+        this.body = body;
+    }
+}
@@ -0,0 +1,23 @@
+package benchmarks;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+// Accepts and drops everything, so benchmarks measure formatting print output but not the console.
+final class DiscardingChannel implements WritableByteChannel {
+    @Override
+    public int write(ByteBuffer source){
+        int written = source.remaining();
+        source.position(source.limit());
+        return written;
+    }
+
+    @Override
+    public boolean isOpen(){
+        return true;
+    }
+
+    @Override
+    public void close(){
+    }
+}
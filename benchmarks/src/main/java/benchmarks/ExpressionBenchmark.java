@@ -0,0 +1,71 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static benchmarks.InterpreterHandles.EXECUTE;
+import static benchmarks.InterpreterHandles.EXPRESSION;
+import static benchmarks.InterpreterHandles.NEW_CHANNEL_OUTPUT;
+import static benchmarks.InterpreterHandles.NEW_ENGINE;
+import static benchmarks.InterpreterHandles.NEW_PARSER;
+import static benchmarks.InterpreterHandles.PREPARE;
+import static benchmarks.InterpreterHandles.SOURCE_OF;
+
+// Representative arithmetic and boolean expressions. parse is Parser.expression(), which includes
+// tokenizing the expression since a Parser tokenizes its whole source up front. evaluate only
+// executes a script printing the expression, prepared during setup without optimizing, so
+// constant expressions are not folded away. Output is discarded.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionBenchmark {
+    @Param({
+            "1 + 2 * 3 - 4 / 2 % 5",
+            "(a + b) * (c - d) / (e + 1)",
+            "a < b && !(c == d) || e >= 10",
+            "i % 15 == 0"
+    })
+    public String expression;
+
+    private static final Map<String, Integer> variables = Map.of("a", 7, "b", 3, "c", 5, "d", 2, "e", 11, "i", 45);
+
+    private Object source;
+    private Object engine;
+    private Object script;
+    private Object output;
+
+    @Setup
+    public void setup() throws Throwable {
+        source = (Object) SOURCE_OF.invokeExact((Object) expression);
+        engine = (Object) NEW_ENGINE.invokeExact(false, -1);
+        Object bindings = variables.keySet().toArray(new String[0]);
+        script = (Object) PREPARE.invokeExact(engine, (Object) ("print(" + expression + ");"), bindings);
+        output = (Object) NEW_CHANNEL_OUTPUT.invokeExact((Object) new DiscardingChannel(), false);
+    }
+
+    @Benchmark
+    public Object parse() throws Throwable {
+        Object parser = (Object) NEW_PARSER.invokeExact(source);
+        return (Object) EXPRESSION.invokeExact(parser);
+    }
+
+    @Benchmark
+    public void evaluate() throws Throwable {
+        EXECUTE.invokeExact(engine, script, (Object) variables, output);
+    }
+}
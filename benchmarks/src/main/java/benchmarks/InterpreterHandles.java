@@ -0,0 +1,94 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.channels.WritableByteChannel;
+import java.util.Map;
+
+// The interpreter lives in the default package, which JMH refuses for benchmarks and which named
+// packages cannot import, so benchmarks reach it through method handles. Every handle is
+// adapted to Object parameters and results (primitives stay primitive) and kept in a static
+// final field, so invokeExact calls are as cheap as direct ones once compiled.
+final class InterpreterHandles {
+    static final MethodHandle MAP_SOURCE;
+    static final MethodHandle SOURCE_OF;
+    static final MethodHandle NEW_LEXER;
+    static final MethodHandle TOKENIZE;
+    static final MethodHandle NEW_PARSER;
+    static final MethodHandle PARSE;
+    static final MethodHandle EXPRESSION;
+    static final MethodHandle NEW_COMPILER;
+    static final MethodHandle COMPILE;
+    static final MethodHandle NEW_VIRTUAL_MACHINE;
+    static final MethodHandle RUN;
+    static final MethodHandle NEW_CHANNEL_OUTPUT;
+    static final MethodHandle NEW_ENGINE;
+    static final MethodHandle PREPARE;
+    static final MethodHandle EXECUTE;
+
+    static {
+        try{
+            Class<?> source = type("Source");
+            Class<?> lexer = type("LexicalAnalyzer");
+            Class<?> tokens = type("Tokens");
+            Class<?> parser = type("Parser");
+            Class<?> block = type("Block");
+            Class<?> expression = type("Expression");
+            Class<?> compiler = type("Compiler");
+            Class<?> program = type("Program");
+            Class<?> virtualMachine = type("VirtualMachine");
+            Class<?> output = type("Output");
+            Class<?> channelOutput = type("ChannelOutput");
+            Class<?> engine = type("Engine");
+            Class<?> preparedScript = type("PreparedScript");
+
+            MAP_SOURCE = generic(lookup(source).findStatic(source, "map", MethodType.methodType(source, String.class)));
+            SOURCE_OF = generic(lookup(source).findStatic(source, "of", MethodType.methodType(source, String.class)));
+            NEW_LEXER = generic(lookup(lexer).findConstructor(lexer, MethodType.methodType(void.class, source)));
+            TOKENIZE = generic(lookup(lexer).findVirtual(lexer, "tokenize", MethodType.methodType(tokens)));
+            NEW_PARSER = generic(lookup(parser).findConstructor(parser, MethodType.methodType(void.class, source)));
+            PARSE = generic(lookup(parser).findVirtual(parser, "parse", MethodType.methodType(block)));
+            EXPRESSION = generic(lookup(parser).findVirtual(parser, "expression", MethodType.methodType(expression)));
+            NEW_COMPILER = generic(lookup(compiler).findConstructor(compiler, MethodType.methodType(void.class)));
+            // Programs are compiled without globals and run without them; run's Profile is dropped.
+            COMPILE = generic(MethodHandles.insertArguments(lookup(compiler).findVirtual(compiler, "compile", MethodType.methodType(program, block, String[].class)), 2, (Object) new String[0]));
+            NEW_VIRTUAL_MACHINE = generic(lookup(virtualMachine).findConstructor(virtualMachine, MethodType.methodType(void.class, int.class, output)));
+            MethodHandle run = lookup(virtualMachine).findVirtual(virtualMachine, "run", MethodType.methodType(type("Profile"), program, Object[].class));
+            run = MethodHandles.insertArguments(run, 2, (Object) new Object[0]);
+            RUN = generic(run.asType(run.type().changeReturnType(void.class)));
+            NEW_CHANNEL_OUTPUT = generic(lookup(channelOutput).findConstructor(channelOutput, MethodType.methodType(void.class, WritableByteChannel.class, boolean.class)));
+            NEW_ENGINE = generic(lookup(engine).findConstructor(engine, MethodType.methodType(void.class, boolean.class, int.class)));
+            PREPARE = generic(lookup(engine).findVirtual(engine, "compile", MethodType.methodType(preparedScript, String.class, String[].class)).asFixedArity());
+            // The Profile execute returns is dropped.
+            MethodHandle execute = lookup(engine).findVirtual(engine, "execute", MethodType.methodType(type("Profile"), preparedScript, Map.class, output));
+            EXECUTE = generic(execute.asType(execute.type().changeReturnType(void.class)));
+        }catch(ReflectiveOperationException e){
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private InterpreterHandles(){
+    }
+
+    private static Class<?> type(String name) throws ClassNotFoundException {
+        return Class.forName(name, true, InterpreterHandles.class.getClassLoader());
+    }
+
+    private static MethodHandles.Lookup lookup(Class<?> type) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+    }
+
+    private static MethodHandle generic(MethodHandle handle){
+        MethodType type = handle.type();
+        for(int i = 0; i < type.parameterCount(); i++){
+            if(!type.parameterType(i).isPrimitive()){
+                type = type.changeParameterType(i, Object.class);
+            }
+        }
+        if(!type.returnType().isPrimitive()){
+            type = type.changeReturnType(Object.class);
+        }
+        return handle.asType(type);
+    }
+}
@@ -0,0 +1,44 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static benchmarks.InterpreterHandles.MAP_SOURCE;
+import static benchmarks.InterpreterHandles.NEW_LEXER;
+import static benchmarks.InterpreterHandles.TOKENIZE;
+
+// Throughput of the tokenizing pass over the sample programs.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LexerBenchmark {
+    @Param({"fizzBuzz.txt", "program1.txt", "program2.txt", "program3.txt"})
+    public String program;
+
+    private Object source;
+
+    @Setup
+    public void setup() throws Throwable {
+        source = (Object) MAP_SOURCE.invokeExact((Object) Programs.path(program));
+    }
+
+    @Benchmark
+    public Object tokenize() throws Throwable {
+        Object lexer = (Object) NEW_LEXER.invokeExact(source);
+        return (Object) TOKENIZE.invokeExact(lexer);
+    }
+}
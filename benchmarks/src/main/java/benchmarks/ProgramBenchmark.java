@@ -0,0 +1,74 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static benchmarks.InterpreterHandles.COMPILE;
+import static benchmarks.InterpreterHandles.MAP_SOURCE;
+import static benchmarks.InterpreterHandles.NEW_CHANNEL_OUTPUT;
+import static benchmarks.InterpreterHandles.NEW_COMPILER;
+import static benchmarks.InterpreterHandles.NEW_PARSER;
+import static benchmarks.InterpreterHandles.NEW_VIRTUAL_MACHINE;
+import static benchmarks.InterpreterHandles.PARSE;
+import static benchmarks.InterpreterHandles.RUN;
+
+// Whole sample programs with print output formatted but discarded: endToEnd maps, parses,
+// compiles and runs the file, execute only runs a program compiled during setup. A negative
+// jitThreshold keeps every loop in the interpreter.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgramBenchmark {
+    @Param({"fizzBuzz.txt", "program1.txt", "program2.txt", "program3.txt"})
+    public String program;
+
+    @Param({"1000", "-1"})
+    public int jitThreshold;
+
+    private String path;
+    private Object compiled;
+
+    @Setup
+    public void setup() throws Throwable {
+        path = Programs.path(program);
+        compiled = compile();
+    }
+
+    @Benchmark
+    public void endToEnd() throws Throwable {
+        run(compile());
+    }
+
+    @Benchmark
+    public void execute() throws Throwable {
+        run(compiled);
+    }
+
+    private Object compile() throws Throwable {
+        Object source = (Object) MAP_SOURCE.invokeExact((Object) path);
+        Object parser = (Object) NEW_PARSER.invokeExact(source);
+        Object ast = (Object) PARSE.invokeExact(parser);
+        Object compiler = (Object) NEW_COMPILER.invokeExact();
+        return (Object) COMPILE.invokeExact(compiler, ast);
+    }
+
+    private void run(Object program) throws Throwable {
+        Object output = (Object) NEW_CHANNEL_OUTPUT.invokeExact((Object) new DiscardingChannel(), false);
+        Object virtualMachine = (Object) NEW_VIRTUAL_MACHINE.invokeExact(jitThreshold, output);
+        RUN.invokeExact(virtualMachine, program);
+    }
+}
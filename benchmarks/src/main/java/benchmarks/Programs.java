@@ -0,0 +1,24 @@
+package benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Finds the sample programs whether the benchmarks run from the repository root or from the
+// benchmarks directory; -Dprograms.dir overrides both.
+final class Programs {
+    private Programs(){
+    }
+
+    static String path(String name){
+        String directory = System.getProperty("programs.dir");
+        if(directory != null){
+            return Path.of(directory, name).toString();
+        }
+        for(Path candidate : new Path[]{Path.of(name), Path.of("..", name)}){
+            if(Files.isRegularFile(candidate)){
+                return candidate.toString();
+            }
+        }
+        throw new IllegalStateException("Cannot find " + name + "; set -Dprograms.dir to the repository root");
+    }
+}
@@ -0,0 +1,80 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static benchmarks.InterpreterHandles.EXECUTE;
+import static benchmarks.InterpreterHandles.NEW_CHANNEL_OUTPUT;
+import static benchmarks.InterpreterHandles.NEW_ENGINE;
+import static benchmarks.InterpreterHandles.PREPARE;
+
+// A loop of ITERATIONS reads of a variable declared in the outermost scope or in the innermost
+// one, under depth nested scopes of VARIABLES_PER_SCOPE each. Variables are resolved to frame
+// slots when the script is compiled, so depth should not matter. Scripts are prepared during
+// setup, unoptimized and interpreted only, so the loads stay in the loop; output is discarded.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariableBenchmark {
+    private static final int VARIABLES_PER_SCOPE = 4;
+    private static final int ITERATIONS = 1000;
+
+    @Param({"1", "4", "16", "64"})
+    public int depth;
+
+    // The scopes are ifs on a binding, which nothing can fold away.
+    private static final Map<String, Integer> bindings = Map.of("n", 1);
+
+    private Object engine;
+    private Object readOuter;
+    private Object readInner;
+    private Object output;
+
+    @Setup
+    public void setup() throws Throwable {
+        engine = (Object) NEW_ENGINE.invokeExact(false, -1);
+        readOuter = prepare("outer");
+        readInner = prepare("inner");
+        output = (Object) NEW_CHANNEL_OUTPUT.invokeExact((Object) new DiscardingChannel(), false);
+    }
+
+    private Object prepare(String variable) throws Throwable {
+        StringBuilder code = new StringBuilder("int outer = 1;\n");
+        for(int scope = 0; scope < depth; scope++){
+            code.append("if(n > 0){\n");
+            for(int i = 0; i < VARIABLES_PER_SCOPE; i++){
+                code.append("int v").append(scope).append('_').append(i).append(" = ").append(i).append(";\n");
+            }
+        }
+        code.append("int inner = 1;\nint total = 0;\n")
+                .append("for(int i = 0; i < ").append(ITERATIONS).append("; i = i + 1){ total = total + ").append(variable).append("; }\n")
+                .append("print(total);\n");
+        code.append("}\n".repeat(depth));
+        return (Object) PREPARE.invokeExact(engine, (Object) code.toString(), (Object) new String[]{"n"});
+    }
+
+    @Benchmark
+    public void readOuter() throws Throwable {
+        EXECUTE.invokeExact(engine, readOuter, (Object) bindings, output);
+    }
+
+    @Benchmark
+    public void readInner() throws Throwable {
+        EXECUTE.invokeExact(engine, readInner, (Object) bindings, output);
+    }
+}
@@ -0,0 +1,48 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BatchRunnerTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void keepsTheOutputOfScriptsWithTheSameName() throws Exception {
+        Files.createDirectories(directory.resolve("a"));
+        Files.createDirectories(directory.resolve("b"));
+        Files.writeString(directory.resolve("a/x.txt"), "print(1);");
+        Files.writeString(directory.resolve("b/x.txt"), "print(2);");
+        Path list = Files.writeString(directory.resolve("batch"), "a/x.txt\nb/x.txt\n");
+
+        Path out = directory.resolve("out");
+        new BatchRunner(new Engine(true, Scripts.INTERPRETED), out).run(BatchRunner.scripts(list));
+        assertEquals(Scripts.lines(1), Files.readString(out.resolve("a/x.txt.out")).replace(System.lineSeparator(), "\n"));
+        assertEquals(Scripts.lines(2), Files.readString(out.resolve("b/x.txt.out")).replace(System.lineSeparator(), "\n"));
+    }
+
+    @Test
+    void reportsErrorsFromOneScriptWithoutLosingTheOthers() throws Exception {
+        Path good = Files.writeString(directory.resolve("good.txt"), "print(1);");
+        Path bad = Files.writeString(directory.resolve("bad.txt"), "print(2);");
+        Engine engine = new Engine(true, Scripts.INTERPRETED){
+            @Override
+            public PreparedScript compileFile(Path path, String... bindings) throws Exception {
+                if(path.endsWith("bad.txt")){
+                    throw new AssertionError("broken");
+                }
+                return super.compileFile(path, bindings);
+            }
+        };
+
+        List<BatchRunner.Result> results = new BatchRunner(engine, null).run(List.of(good, bad));
+        assertNull(results.get(0).error);
+        assertEquals(List.of("1"), results.get(0).output);
+        assertEquals("broken", results.get(1).error);
+    }
+}
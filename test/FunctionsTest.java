@@ -0,0 +1,50 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class FunctionsTest {
+    @Test
+    void recursionAndTailCalls() throws Exception {
+        String code = """
+                int fib(int n){
+                    if(n < 2){
+                        return n;
+                    }
+                    return fib(n - 1) + fib(n - 2);
+                }
+                int count(int n, int total){
+                    if(n == 0){
+                        return total;
+                    }
+                    return count(n - 1, total + 1);
+                }
+                print(fib(20));
+                print(count(3000000, 0));
+                """;
+        assertEquals(Scripts.lines(6765, 3000000), Scripts.runOnAllTiers(code));
+    }
+
+    @Test
+    void deepRecursionInAWideFrameOverflowsTheStack() throws Exception {
+        String code = """
+                int wide(int n){
+                    int a = n; int b = a + 1; int c = b + 1; int d = c + 1;
+                    int e = d + 1; int f = e + 1; int g = f + 1; int h = g + 1;
+                    return wide(n + 1) + h;
+                }
+                print(wide(0));
+                """;
+        assertEquals(Scripts.lines("!! Stack overflow on line 3"), Scripts.runOnAllTiers(code));
+    }
+
+    @Test
+    void deepRecursionWithoutAFrameOverflowsTheStack() throws Exception {
+        String code = """
+                int forever(){
+                    return 1 + forever();
+                }
+                print(forever());
+                """;
+        assertEquals(Scripts.lines("!! Stack overflow on line 1"), Scripts.runOnAllTiers(code));
+    }
+}
@@ -0,0 +1,76 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class JitCompilerTest {
+    // Runs each input in a REPL session so the frame can be looked at after an input fails.
+    private static String session(int jitThreshold, String... inputs) throws Exception {
+        CollectingOutput output = new CollectingOutput();
+        Repl repl = new Repl(true, jitThreshold, output);
+        for(String input : inputs){
+            try{
+                repl.execute(input);
+            }catch(Exception e){
+                output.println("!! " + e.getMessage());
+            }
+        }
+        return output.text();
+    }
+
+    private static String onBothTiers(String... inputs) throws Exception {
+        String interpreted = session(Scripts.INTERPRETED, inputs);
+        assertEquals(interpreted, session(Scripts.COMPILED, inputs));
+        return interpreted;
+    }
+
+    @Test
+    void divisionByZeroKeepsEarlierUpdates() throws Exception {
+        String output = onBothTiers(
+                "int x = 0;",
+                "for(int i = 0; i < 10; i = i + 1){ x = x + 1; x = x / (5 - i); }",
+                "print(x);");
+        assertEquals(Scripts.lines("!! Division by zero on line 0", 2), output);
+    }
+
+    @Test
+    void indexOutOfBoundsKeepsEarlierUpdates() throws Exception {
+        String output = onBothTiers(
+                "int[] a = new int[2]; int[] b = a; bool done = false; int n = 0;",
+                "for(int i = 0; i < 10; i = i + 1){ n = n + i; b = new int[i + 1]; done = i > 2; a[i] = n; }",
+                "print(n); print(len(b)); print(done); print(a[1]);");
+        assertEquals(Scripts.lines("!! Index 2 out of bounds for length 2 on line 0", 3, 3, false, 1), output);
+    }
+
+    @Test
+    void changedBindingTypeFallsBackToTheInterpreter() throws Exception {
+        Engine engine = new Engine(true, Scripts.COMPILED);
+        PreparedScript script = engine.compile("int total = 0; for(int i = 0; i < 4; i = i + 1){ if(n == n){ total = total + i; } } print(total); print(n);", "n");
+        for(Object n : new Object[]{1, true, "ab", 2}){
+            CollectingOutput output = new CollectingOutput();
+            engine.execute(script, Map.of("n", n), output);
+            assertEquals(Scripts.lines(6, n), output.text());
+        }
+    }
+
+    @Test
+    void compiledLoopsReportErrorsLikeTheInterpreter() throws Exception {
+        String code = """
+                int[] a = new int[5];
+                int total = 0;
+                for(int i = 0; i <= len(a); i = i + 1){
+                    total = total + i;
+                    print(total);
+                    a[i] = total;
+                }
+                """;
+        assertEquals(Scripts.lines(0, 1, 3, 6, 10, 15, "!! Index 5 out of bounds for length 5 on line 5"), Scripts.runOnAllTiers(code));
+    }
+
+    @Test
+    void loopsWithConstantsTooLongForAClassFileStayInTheInterpreter() throws Exception {
+        String text = "x".repeat(70_000);
+        String code = "for(int i = 0; i < 2; i = i + 1){ print(\"" + text + "\"); }";
+        assertEquals(Scripts.lines(text, text), Scripts.runOnAllTiers(code));
+    }
+}
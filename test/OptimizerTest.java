@@ -0,0 +1,206 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+// Checks what the Optimizer leaves in the compiled code, and that the rewritten programs still
+// print the same as the unoptimized ones on every tier.
+class OptimizerTest {
+    @Test
+    void foldsConstantsAndDropsDeadBranches() throws Exception {
+        String code = """
+                print(2 * 3 + 4);
+                if(1 > 2){
+                    print(1);
+                }
+                """;
+        assertEquals(List.of(Opcode.INT_CONST, Opcode.PRINT), opcodes(code));
+        assertEquals(Scripts.lines(10), Scripts.runOnAllTiers(code));
+    }
+
+    @Test
+    void dropsStoresToVariablesThatAreNeverRead() throws Exception {
+        String code = """
+                int unused = 3 * 4;
+                unused = 7;
+                print(1);
+                """;
+        assertEquals(List.of(Opcode.INT_CONST, Opcode.PRINT), opcodes(code));
+        assertEquals(Scripts.lines(1), Scripts.runOnAllTiers(code));
+    }
+
+    @Test
+    void leavesOperationsThatFailAlone() throws Exception {
+        String code = """
+                print(1);
+                print(1 / 0);
+                """;
+        assertTrue(opcodes(code).contains(Opcode.UNCHECKED_OPERATOR));
+        assertEquals(Scripts.lines(1, "!! Division by zero on line 1"), Scripts.runOnAllTiers(code));
+    }
+
+    @Test
+    void hoistsLoopInvariants() throws Exception {
+        String code = """
+                int n = 7;
+                int total = 0;
+                int i = 0;
+                while(i < 20){
+                    total = total + n * n;
+                    i = i + 1;
+                }
+                print(total);
+                """;
+        List<int[]> instructions = instructions(code);
+        int multiply = indexOf(instructions, Opcode.UNCHECKED_OPERATOR, Operator.MULTIPLY.ordinal());
+        int loop = indexOf(instructions, Opcode.BRANCH_SLOT_CONST);
+        assertTrue(multiply >= 0 && multiply < loop, "n * n is computed before the loop");
+        assertEquals(Scripts.lines(980), Scripts.runOnAllTiers(code));
+    }
+
+    @Test
+    void keepsModuloInCountersThatStepWithTheLoop() throws Exception {
+        String code = """
+                int fizz = 0;
+                int buzz = 0;
+                for(int i = 1; i <= 100; i = i + 2){
+                    if(i % 3 == 0){
+                        fizz = fizz + 1;
+                    }
+                    if(i % 5 == 0){
+                        buzz = buzz + 1;
+                    }
+                }
+                print(fizz);
+                print(buzz);
+                """;
+        assertEquals(-1, indexOf(instructions(code), Opcode.UNCHECKED_OPERATOR, Operator.MODULO.ordinal()));
+        assertEquals(Scripts.lines(17, 10), Scripts.runOnAllTiers(code));
+    }
+
+    @Test
+    void leavesModuloAloneWhenTheBodyWritesTheCounter() throws Exception {
+        String code = """
+                int hits = 0;
+                for(int i = 0; i < 30; i = i + 1){
+                    if(i % 4 == 0){
+                        hits = hits + 1;
+                        i = i + 1;
+                    }
+                }
+                print(hits);
+                """;
+        assertTrue(indexOf(instructions(code), Opcode.UNCHECKED_OPERATOR, Operator.MODULO.ordinal()) >= 0);
+        assertEquals(Scripts.lines(8), Scripts.runOnAllTiers(code));
+    }
+
+    @Test
+    void fusesCounterUpdatesAndConditions() throws Exception {
+        String code = """
+                int n = 10;
+                int total = 0;
+                for(int i = 0; i < n; i = i + 1){
+                    total = total - 2;
+                }
+                print(total);
+                """;
+        List<Integer> opcodes = opcodes(code);
+        assertTrue(opcodes.contains(Opcode.BRANCH_SLOT_SLOT));
+        assertFalse(opcodes.contains(Opcode.UNCHECKED_OPERATOR));
+        assertEquals(2, opcodes.stream().filter(opcode -> opcode == Opcode.INCREMENT).count());
+        assertEquals(Scripts.lines(-20), Scripts.runOnAllTiers(code));
+    }
+
+    @Test
+    void inlinesFunctionsThatOnlyReturnAnExpression() throws Exception {
+        String code = """
+                int square(int x){
+                    return x * x;
+                }
+                int fact(int n){
+                    if(n < 2){
+                        return 1;
+                    }
+                    return n * fact(n - 1);
+                }
+                int total = 0;
+                for(int i = 0; i < 5; i = i + 1){
+                    total = total + square(i);
+                }
+                print(total);
+                print(fact(5));
+                """;
+        // Only the call to fact and its own recursive call are left.
+        assertEquals(2, opcodes(code).stream().filter(opcode -> opcode == Opcode.CALL).count());
+        assertEquals(Scripts.lines(30, 120), Scripts.runOnAllTiers(code));
+    }
+
+    @Test
+    void dropsBoundsChecksOnIndexesProvenInRange() throws Exception {
+        String code = """
+                int[] a = new int[5];
+                for(int i = 0; i < len(a); i = i + 1){
+                    a[i] = i * i;
+                }
+                int total = 0;
+                for(int i = len(a) - 1; i >= 0; i = i - 1){
+                    total = total + a[i];
+                }
+                print(total);
+                print(a[total % 5]);
+                """;
+        List<int[]> instructions = instructions(code);
+        assertTrue(indexOf(instructions, Opcode.UNCHECKED_STORE_ELEMENT, Opcode.TYPE_INT, 0) >= 0, "counting up");
+        assertTrue(indexOf(instructions, Opcode.UNCHECKED_LOAD_ELEMENT, Opcode.TYPE_INT, 0) >= 0, "counting down");
+        assertTrue(indexOf(instructions, Opcode.UNCHECKED_LOAD_ELEMENT, Opcode.TYPE_INT, 1) >= 0, "a[total % 5]");
+        assertEquals(Scripts.lines(30, 0), Scripts.runOnAllTiers(code));
+    }
+
+    @Test
+    void keepsBoundsChecksOnIndexesThatCanBeOutOfRange() throws Exception {
+        String code = """
+                int[] a = new int[5];
+                for(int i = 0; i <= len(a); i = i + 1){
+                    a[i] = i;
+                }
+                """;
+        List<int[]> instructions = instructions(code);
+        assertEquals(-1, indexOf(instructions, Opcode.UNCHECKED_STORE_ELEMENT, Opcode.TYPE_INT, 0));
+        assertEquals(Scripts.lines("!! Index 5 out of bounds for length 5 on line 2"), Scripts.runOnAllTiers(code));
+    }
+
+    // The opcodes of the optimized program, without their operands.
+    static List<Integer> opcodes(String code) throws Exception {
+        List<Integer> opcodes = new ArrayList<>();
+        for(int[] instruction : instructions(code)){
+            opcodes.add(instruction[0]);
+        }
+        return opcodes;
+    }
+
+    // Each instruction of the optimized program, opcode first, then its operands.
+    static List<int[]> instructions(String code) throws Exception {
+        int[] program = new Engine(true, Scripts.INTERPRETED).compile(code).program.code;
+        List<int[]> instructions = new ArrayList<>();
+        for(int pc = 0; pc < program.length; pc += 1 + Opcode.operandCount(program[pc])){
+            instructions.add(Arrays.copyOfRange(program, pc, pc + 1 + Opcode.operandCount(program[pc])));
+        }
+        return instructions;
+    }
+
+    // Index of the first instruction starting with the given words, or -1.
+    static int indexOf(List<int[]> instructions, int... words){
+        for(int i = 0; i < instructions.size(); i++){
+            int[] instruction = instructions.get(i);
+            if(instruction.length >= words.length && Arrays.equals(instruction, 0, words.length, words, 0, words.length)){
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,51 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class OutputTest {
+    private static final String lineSeparator = System.lineSeparator();
+
+    private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+    private ChannelOutput output(int bufferSize, long flushIntervalMillis){
+        return new ChannelOutput(Channels.newChannel(written), false, bufferSize, flushIntervalMillis);
+    }
+
+    private String written(){
+        return written.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void printsValuesOnePerLine() throws Exception {
+        try(ChannelOutput output = output(1 << 16, 60_000)){
+            output.println(Integer.MIN_VALUE);
+            output.println(0);
+            output.println(true);
+            output.println("héllo");
+        }
+        assertEquals(String.join(lineSeparator, "-2147483648", "0", "true", "héllo", ""), written());
+    }
+
+    @Test
+    void keepsLinesUntilTheBufferFills() throws Exception {
+        ChannelOutput output = output(64, 60_000);
+        output.println("short");
+        assertEquals("", written());
+        output.println("x".repeat(100));
+        assertEquals("short" + lineSeparator + "x".repeat(100), written());
+        output.flush();
+        assertEquals("short" + lineSeparator + "x".repeat(100) + lineSeparator, written());
+    }
+
+    @Test
+    void firstLineAfterTheIntervalFlushes() throws Exception {
+        ChannelOutput output = output(1 << 16, 20);
+        output.println(1);
+        Thread.sleep(40);
+        output.println(2);
+        assertEquals("1" + lineSeparator + "2" + lineSeparator, written());
+    }
+}
@@ -0,0 +1,38 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class ProfileTest {
+    @Test
+    void countsShortCircuitOperatorsOnTypeCheckedPrograms() throws Exception {
+        String code = """
+                int hits = 0;
+                for(int i = 0; i < 10; i = i + 1){
+                    if(i > 2 && i < 5 || i == 9){
+                        hits = hits + 1;
+                    }
+                }
+                print(hits);
+                """;
+        for(boolean optimize : new boolean[]{true, false}){
+            Map<Operator, Long> counts = operatorCounts(code, optimize);
+            assertEquals(10L, counts.get(Operator.AND), "&&, optimize " + optimize);
+            assertEquals(10L, counts.get(Operator.OR), "||, optimize " + optimize);
+        }
+    }
+
+    private static Map<Operator, Long> operatorCounts(String code, boolean optimize) throws Exception {
+        Engine engine = new Engine(optimize, Instrumentation.PROFILE, Scripts.INTERPRETED, null, null);
+        CollectingOutput output = new CollectingOutput();
+        Profile profile = engine.execute(engine.compile(code), output);
+        assertEquals(Scripts.lines(3), output.text());
+        Map<Operator, Long> counts = new HashMap<>();
+        for(Profile.OperatorStats stats : profile.operators()){
+            counts.put(stats.operator, stats.count);
+        }
+        return counts;
+    }
+}
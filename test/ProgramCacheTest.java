@@ -0,0 +1,99 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ProgramCacheTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void loadsTheCachedProgramInsteadOfCompiling() throws Exception {
+        Path script = script("print(1);");
+        assertEquals(Scripts.lines(1), run(script));
+
+        // A cached program that prints something else shows the source was not compiled again.
+        cache().store(key(script), program("print(2);"));
+        assertEquals(Scripts.lines(2), run(script));
+    }
+
+    @Test
+    void recompilesFilesFromAnotherFormatVersion() throws Exception {
+        Path script = script("print(1);");
+        run(script);
+        byte[] current = Files.readAllBytes(cached(script));
+
+        cache().store(key(script), program("print(2);"));
+        byte[] stale = Files.readAllBytes(cached(script));
+        ByteBuffer.wrap(stale).putInt(4, ByteBuffer.wrap(stale).getInt(4) - 1);
+        Files.write(cached(script), stale);
+
+        assertEquals(Scripts.lines(1), run(script));
+        assertEquals(Arrays.toString(current), Arrays.toString(Files.readAllBytes(cached(script))), "rewritten");
+    }
+
+    @Test
+    void recompilesTruncatedFiles() throws Exception {
+        Path script = script("print(1);");
+        run(script);
+        byte[] current = Files.readAllBytes(cached(script));
+
+        cache().store(key(script), program("print(2);"));
+        byte[] other = Files.readAllBytes(cached(script));
+        Files.write(cached(script), Arrays.copyOf(other, other.length / 2));
+
+        assertEquals(Scripts.lines(1), run(script));
+        assertEquals(Arrays.toString(current), Arrays.toString(Files.readAllBytes(cached(script))), "rewritten");
+    }
+
+    @Test
+    void runsScriptsWhenTheCacheCannotBeWritten() throws Exception {
+        Path script = script("print(1);");
+        Path notADirectory = Files.writeString(directory.resolve("cache"), "");
+        assertEquals(Scripts.lines(1), run(script));
+        assertEquals("", Files.readString(notADirectory));
+    }
+
+    @Test
+    void keysDependOnTheCompileSettings() throws Exception {
+        Source source = Source.map(script("print(1);").toString());
+        String key = cache().key(source, true, Instrumentation.NONE);
+        assertEquals(key, cache().key(source, true, Instrumentation.NONE));
+        assertNotEquals(key, cache().key(source, false, Instrumentation.NONE));
+        assertNotEquals(key, cache().key(source, true, Instrumentation.PROFILE));
+        assertNotEquals(key, cache().key(source, true, Instrumentation.NONE, "x"));
+    }
+
+    private Path script(String code) throws Exception {
+        return Files.writeString(directory.resolve("script.txt"), code);
+    }
+
+    private ProgramCache cache(){
+        return new ProgramCache(directory.resolve("cache"));
+    }
+
+    private String key(Path script) throws Exception {
+        return cache().key(Source.map(script.toString()), true, Instrumentation.NONE);
+    }
+
+    private Path cached(Path script) throws Exception {
+        return directory.resolve("cache").resolve(key(script) + ".sipc");
+    }
+
+    private static Program program(String code) throws Exception {
+        return new Engine(true, Scripts.INTERPRETED).compile(code).program;
+    }
+
+    private String run(Path script) throws Exception {
+        Engine engine = new Engine(true, Instrumentation.NONE, Scripts.INTERPRETED, directory.resolve("cache"), null);
+        CollectingOutput output = new CollectingOutput();
+        engine.execute(engine.compileFile(script), output);
+        return output.text();
+    }
+}
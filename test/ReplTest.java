@@ -0,0 +1,76 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ReplTest {
+    private final CollectingOutput output = new CollectingOutput();
+
+    // Feeds input to a session line by line and returns the prompts and error messages it showed.
+    // What the session printed goes to output.
+    private String session(int jitThreshold, String input) throws Exception {
+        ByteArrayOutputStream prompt = new ByteArrayOutputStream();
+        try(PrintStream promptStream = new PrintStream(prompt, true, StandardCharsets.UTF_8)){
+            new Repl(true, jitThreshold, output).run(new BufferedReader(new StringReader(input)), promptStream);
+        }
+        return prompt.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void variablesLastForTheSession() throws Exception {
+        String prompts = session(Scripts.INTERPRETED, """
+                int x = 1;
+                int twice(int n){
+                    return n * 2;
+                }
+                x = twice(x + 1);
+                print(x);
+                """);
+        assertEquals("> > . . > > > \n", prompts);
+        assertEquals(Scripts.lines(4), output.text());
+    }
+
+    @Test
+    void failedInputsTakeBackTheirDeclarations() throws Exception {
+        String prompts = session(Scripts.INTERPRETED, """
+                int x = 1;
+                int y = 2; x = 5; print(y / 0);
+                int y = x + 1; print(y);
+                int f(int n){ return n; } print(nope);
+                int f(int n){ return n + 1; } print(f(x));
+                """);
+        assertEquals("> > Division by zero on line 0\n> > Unknown identifier on line 0\n> > \n", prompts);
+        assertEquals(Scripts.lines(6, 6), output.text());
+    }
+
+    // The loops run long enough to get compiled part way through under the default threshold.
+    @ParameterizedTest
+    @ValueSource(ints = {Scripts.INTERPRETED, Scripts.COMPILED, 1000})
+    void runtimeErrorInAHotLoopKeepsEarlierChanges(int jitThreshold) throws Exception {
+        String prompts = session(jitThreshold, """
+                int x = 0; int y = 0; int[] a = new int[3000];
+                for(int i = 0; i < 5000; i = i + 1){ x = x + i; a[i] = x; }
+                print(x); print(a[2999]);
+                for(int i = 0; i < 5000; i = i + 1){ y = y + 1; x = x / (4000 - i); }
+                print(x); print(y);
+                """);
+        assertEquals("> > Index 3000 out of bounds for length 3000 on line 0\n> > Division by zero on line 0\n> > \n", prompts);
+        assertEquals(Scripts.lines(4501500, 4498500, 0, 4001), output.text());
+    }
+
+    @Test
+    void bracketsDecideWhetherInputIsComplete(){
+        assertTrue(Repl.incomplete("for(int i = 0; i < 3; i = i + 1){"));
+        assertTrue(Repl.incomplete("print((1 + 2)"));
+        assertFalse(Repl.incomplete("print(1);"));
+        assertFalse(Repl.incomplete("}{"));
+    }
+}
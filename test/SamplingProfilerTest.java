@@ -0,0 +1,33 @@
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SamplingProfilerTest {
+    @Test
+    void stacksFollowCallsIntoFunctions() throws Exception {
+        String code = """
+                int fib(int n){
+                    if(n < 2){
+                        return n;
+                    }
+                    return fib(n - 1) + fib(n - 2);
+                }
+                for(int i = 0; i < 3; i = i + 1){
+                    print(fib(22));
+                }
+                """;
+        SamplingProfiler sampler = new SamplingProfiler();
+        Engine engine = new Engine(true, Instrumentation.NONE, Scripts.INTERPRETED, null, sampler);
+        PreparedScript script = engine.compile(code);
+        sampler.start(50);
+        engine.execute(script, new CollectingOutput());
+        sampler.stop();
+
+        List<String> stacks = Arrays.asList(sampler.collapsed().split("\n"));
+        assertTrue(stacks.stream().anyMatch(stack -> stack.startsWith("<script>;for (line 6);line 7;fib;line 4;fib;")), String.join("\n", stacks));
+        // Everything else was sampled in the loop, either at its condition or in the call.
+        assertTrue(stacks.stream().allMatch(stack -> stack.startsWith("<script>;for (line 6);line ")), String.join("\n", stacks));
+    }
+}
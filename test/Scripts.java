@@ -0,0 +1,37 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Runs programs from source and collects what they print. A program that fails ends its output
+// with the error message, so tiers can be compared on programs that fail too.
+class Scripts {
+    static final int INTERPRETED = -1;
+    static final int COMPILED = 1;
+
+    static String run(String code, boolean optimize, int jitThreshold) throws Exception {
+        Engine engine = new Engine(optimize, jitThreshold);
+        PreparedScript script = engine.compile(code);
+        CollectingOutput output = new CollectingOutput();
+        try{
+            engine.execute(script, output);
+        }catch(Exception e){
+            output.println("!! " + e.getMessage());
+        }
+        return output.text();
+    }
+
+    // Runs code in the interpreter only, with every loop compiled to the JVM on entry, and
+    // unoptimized, checks they all print the same and returns what they printed.
+    static String runOnAllTiers(String code) throws Exception {
+        String interpreted = run(code, true, INTERPRETED);
+        assertEquals(interpreted, run(code, true, COMPILED), "compiled loops");
+        assertEquals(interpreted, run(code, false, INTERPRETED), "unoptimized");
+        return interpreted;
+    }
+
+    static String lines(Object... lines){
+        StringBuilder text = new StringBuilder();
+        for(Object line : lines){
+            text.append(line).append('\n');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,28 @@
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+class SymbolsTest {
+    @Test
+    void aNameHasOneIdentifier(){
+        Identifier name = Identifier.of("counter");
+        assertSame(name, Identifier.of(new String("counter")));
+        assertSame(Keyword.WHILE, Identifier.of("while").keyword);
+        assertNotSame(name, Symbols.uninterned("counter"));
+    }
+
+    @Test
+    void namesNothingRefersToAreDropped() throws Exception {
+        for(int i = 0; i < 1000; i++){
+            new Engine(true, Scripts.INTERPRETED).compile("int unusedName" + i + " = " + i + ";");
+        }
+        for(int attempt = 0; attempt < 100 && Symbols.find("unusedName999") != null; attempt++){
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(Symbols.find("unusedName999"));
+        assertSame(Keyword.INT, Symbols.find("int").keyword);
+    }
+}
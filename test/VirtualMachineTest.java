@@ -0,0 +1,59 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class VirtualMachineTest {
+    @ParameterizedTest
+    @ValueSource(strings = {"program1.txt", "program2.txt", "program3.txt", "fizzBuzz.txt", "myProgram.txt"})
+    void samplePrintTheSameOnEveryTier(String file) throws Exception {
+        Scripts.runOnAllTiers(Files.readString(Path.of(file)));
+    }
+
+    @Test
+    void arithmeticAndComparisons() throws Exception {
+        String code = """
+                int x = 7;
+                int y = 0 - 3;
+                print(x + y * 2);
+                print(x / y);
+                print(x % y);
+                print(x > y && !(y == 0 - 3));
+                print(x != y || x < 0);
+                """;
+        assertEquals(Scripts.lines(1, -2, 1, false, true), Scripts.runOnAllTiers(code));
+    }
+
+    @Test
+    void nestedLoopsAndBranches() throws Exception {
+        String code = """
+                int total = 0;
+                for(int i = 0; i < 50; i = i + 1){
+                    for(int j = i; j > 0; j = j - 3){
+                        if(j % 2 == 0){
+                            total = total + j;
+                        }elif(j % 5 == 0){
+                            total = total - 1;
+                        }else{
+                            total = total + 1;
+                        }
+                    }
+                }
+                print(total);
+                """;
+        Scripts.runOnAllTiers(code);
+    }
+
+    @Test
+    void divisionByZeroStopsTheProgram() throws Exception {
+        String code = """
+                int x = 1;
+                print(x);
+                print(x / (x - 1));
+                """;
+        assertEquals(Scripts.lines(1, "!! Division by zero on line 2"), Scripts.runOnAllTiers(code));
+    }
+}